@@ -3,8 +3,10 @@ package com.example.excelanalyzer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ExcelAnalyzerApplication {
     public static void main(String[] args) {
         SpringApplication.run(ExcelAnalyzerApplication.class, args);
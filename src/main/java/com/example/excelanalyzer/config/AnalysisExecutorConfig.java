@@ -0,0 +1,57 @@
+package com.example.excelanalyzer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AnalysisExecutorConfig {
+
+    // 多工作表并行解析与分析的线程池，线程数固定以限制并发内存占用
+    @Bean(name = "sheetAnalysisExecutor", destroyMethod = "shutdown")
+    public ExecutorService sheetAnalysisExecutor(
+            @Value("${analyzer.analysis.sheet-parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, namedThreadFactory("sheet-analysis-"));
+    }
+
+    // 异步分析任务线程池，队列有界，队列满时拒绝新的上传
+    @Bean(name = "analysisJobExecutor", destroyMethod = "shutdown")
+    public ExecutorService analysisJobExecutor(
+            @Value("${analyzer.jobs.parallelism:2}") int parallelism,
+            @Value("${analyzer.jobs.queue-capacity:50}") int queueCapacity) {
+        return new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), namedThreadFactory("analysis-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // 列统计专用的ForkJoin线程池：各列并行统计，大列再按行区间拆分；不使用公共池，避免与其他并行任务争用
+    @Bean(name = "columnProfilingPool", destroyMethod = "shutdown")
+    public ForkJoinPool columnProfilingPool(
+            @Value("${analyzer.analysis.profile-parallelism:0}") int parallelism) {
+        int size = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(size, pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("column-profile-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+    }
+
+    static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
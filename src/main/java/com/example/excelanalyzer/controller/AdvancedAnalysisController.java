@@ -1,21 +1,28 @@
 
 package com.example.excelanalyzer.controller;
 
+import com.example.excelanalyzer.dataframe.DataFrame;
 import com.example.excelanalyzer.entity.AnalysisResult;
 import com.example.excelanalyzer.entity.DataSet;
 import com.example.excelanalyzer.model.*;
 import com.example.excelanalyzer.service.AdvancedStatisticalAnalysisService;
 import com.example.excelanalyzer.service.ChartGenerationService;
 import com.example.excelanalyzer.service.ExcelAnalysisService;
+import com.example.excelanalyzer.service.RegressionResidualStore;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +33,8 @@ public class AdvancedAnalysisController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdvancedAnalysisController.class);
 
+    private static final MediaType ARROW_STREAM = MediaType.parseMediaType("application/vnd.apache.arrow.stream");
+
     @Autowired
     private ExcelAnalysisService excelAnalysisService;
 
@@ -35,6 +44,9 @@ public class AdvancedAnalysisController {
     @Autowired
     private ChartGenerationService chartGenerationService;
 
+    @Autowired
+    private RegressionResidualStore residualStore;
+
     @GetMapping("/datasets")
     public ResponseEntity<List<DataSet>> getAllDataSets() {
         try {
@@ -57,12 +69,37 @@ public class AdvancedAnalysisController {
         }
     }
 
+    // 以Arrow IPC流格式下载已解析的工作表，sheet为空时使用第一个工作表
+    @GetMapping("/datasets/{datasetId}/arrow")
+    public ResponseEntity<StreamingResponseBody> exportArrow(
+            @PathVariable Long datasetId,
+            @RequestParam(value = "sheet", required = false) String sheet) {
+        try {
+            DataFrame dataFrame = excelAnalysisService.loadDataFrame(datasetId, sheet);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(ARROW_STREAM);
+            headers.setContentDisposition(ContentDisposition.attachment()
+                    .filename((sheet != null ? sheet : "dataset-" + datasetId) + ".arrows", StandardCharsets.UTF_8)
+                    .build());
+
+            StreamingResponseBody body = out -> excelAnalysisService.exportArrow(dataFrame, out);
+            return ResponseEntity.ok().headers(headers).body(body);
+        } catch (Exception e) {
+            logger.error("导出Arrow数据失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/analysis/{datasetId}/{analysisType}")
     public ResponseEntity<AnalysisResult> getAnalysisResult(
             @PathVariable Long datasetId,
-            @PathVariable String analysisType) {
+            @PathVariable String analysisType,
+            @RequestParam(value = "sheet", required = false) String sheet) {
         try {
-            AnalysisResult result = excelAnalysisService.getAnalysisResult(datasetId, analysisType);
+            AnalysisResult result = sheet != null
+                    ? excelAnalysisService.getAnalysisResult(datasetId, analysisType, sheet)
+                    : excelAnalysisService.getAnalysisResult(datasetId, analysisType);
             if (result == null) {
                 return ResponseEntity.notFound().build();
             }
@@ -73,6 +110,25 @@ public class AdvancedAnalysisController {
         }
     }
 
+    // 只读取分析结果中的一个顶层字段，例如STATISTICAL结果中某一列的统计
+    @GetMapping("/analysis/{datasetId}/{analysisType}/field")
+    public ResponseEntity<JsonNode> getAnalysisResultField(
+            @PathVariable Long datasetId,
+            @PathVariable String analysisType,
+            @RequestParam("name") String name,
+            @RequestParam(value = "sheet", required = false) String sheet) {
+        try {
+            JsonNode field = excelAnalysisService.getAnalysisResultField(datasetId, analysisType, sheet, name);
+            if (field == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(field);
+        } catch (Exception e) {
+            logger.error("获取分析结果字段失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/regression/{datasetId}")
     public ResponseEntity<RegressionAnalysis> performRegression(
             @PathVariable Long datasetId,
@@ -81,9 +137,11 @@ public class AdvancedAnalysisController {
             String dependentVar = (String) request.get("dependentVariable");
             @SuppressWarnings("unchecked")
             List<String> independentVars = (List<String>) request.get("independentVariables");
+            // 可选，未指定时使用第一个工作表
+            String sheetName = (String) request.get("sheetName");
             
             RegressionAnalysis analysis = excelAnalysisService.performRegressionAnalysis(
-                    datasetId, dependentVar, independentVars);
+                    datasetId, sheetName, dependentVar, independentVars);
             
             return ResponseEntity.ok(analysis);
         } catch (Exception e) {
@@ -92,6 +150,46 @@ public class AdvancedAnalysisController {
         }
     }
 
+    // 按行顺序分页读取回归的完整残差
+    @GetMapping("/regression/residuals/{residualsId}")
+    public ResponseEntity<ResidualPage> getRegressionResiduals(
+            @PathVariable String residualsId,
+            @RequestParam(value = "offset", defaultValue = "0") long offset,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(residualStore.readPage(residualsId, offset, limit));
+        } catch (Exception e) {
+            logger.error("读取回归残差失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // 以小端double序列流式输出残差，未指定limit时输出offset之后的全部残差
+    @GetMapping("/regression/residuals/{residualsId}/binary")
+    public ResponseEntity<StreamingResponseBody> streamRegressionResiduals(
+            @PathVariable String residualsId,
+            @RequestParam(value = "offset", defaultValue = "0") long offset,
+            @RequestParam(value = "limit", required = false) Long limit) {
+        try {
+            long total = residualStore.count(residualsId);
+            long start = Math.max(0, Math.min(offset, total));
+            long count = limit != null ? Math.max(0, Math.min(limit, total - start)) : total - start;
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentLength(count * Double.BYTES);
+            headers.set("X-Residual-Total", String.valueOf(total));
+            headers.set("X-Residual-Offset", String.valueOf(start));
+
+            StreamingResponseBody body = out -> residualStore.transferValues(
+                    residualsId, start, count, Channels.newChannel(out));
+            return ResponseEntity.ok().headers(headers).body(body);
+        } catch (Exception e) {
+            logger.error("读取回归残差失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/chart/generate")
     public ResponseEntity<byte[]> generateChart(@RequestBody ChartRequest request) {
         try {
@@ -0,0 +1,87 @@
+package com.example.excelanalyzer.controller;
+
+import com.example.excelanalyzer.entity.DataSet;
+import com.example.excelanalyzer.model.ChunkedUploadRequest;
+import com.example.excelanalyzer.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/upload/sessions")
+@CrossOrigin(origins = "*")
+public class ChunkedUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadController.class);
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> initUpload(@RequestBody ChunkedUploadRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.init(request));
+        } catch (Exception e) {
+            logger.error("创建分块上传失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // 客户端断线重连后据此得知哪些分块已上传
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> getUploadStatus(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // 请求体为分块的原始字节
+    @PutMapping("/{uploadId}/chunks/{chunkIndex}")
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int chunkIndex,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.writeChunk(uploadId, chunkIndex, request.getInputStream()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("上传分块失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> completeUpload(@PathVariable String uploadId) {
+        try {
+            DataSet dataSet = chunkedUploadService.complete(uploadId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("datasetId", dataSet.getId());
+            response.put("status", dataSet.getStatus());
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            logger.error("完成分块上传失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) {
+        chunkedUploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,14 +1,19 @@
 
 package com.example.excelanalyzer.controller;
 
-import com.example.excelanalyzer.model.DataAnalysisResult;
+import com.example.excelanalyzer.entity.DataSet;
+import com.example.excelanalyzer.service.AnalysisJobService;
 import com.example.excelanalyzer.service.ExcelAnalysisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
@@ -18,20 +23,38 @@ public class FileUploadController {
     @Autowired
     private ExcelAnalysisService excelAnalysisService;
 
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    // 上传后立即返回数据集ID，分析在后台执行，通过状态接口轮询
     @PostMapping("/upload")
-    public ResponseEntity<DataAnalysisResult> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "sheets", required = false) List<String> sheets) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().build();
             }
 
-            DataAnalysisResult result = excelAnalysisService.analyzeExcelFile(file);
-            return ResponseEntity.ok(result);
+            DataSet dataSet = analysisJobService.submit(file, sheets);
+            Map<String, Object> response = new HashMap<>();
+            response.put("datasetId", dataSet.getId());
+            response.put("status", dataSet.getStatus());
+            return ResponseEntity.accepted().body(response);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/upload/{datasetId}/status")
+    public ResponseEntity<Map<String, Object>> getUploadStatus(@PathVariable Long datasetId) {
+        return analysisJobService.getStatus(datasetId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/generate-chart")
     public ResponseEntity<Map<String, Object>> generateChart(
             @RequestBody Map<String, Object> chartRequest) {
@@ -0,0 +1,305 @@
+package com.example.excelanalyzer.dataframe;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arrow IPC消息头使用的FlatBuffers编码，只实现读写Schema/RecordBatch/DictionaryBatch所需的部分。
+ * 写入时按从前到后的顺序排列：每个表之前是它的vtable，子对象(表、向量、字符串)放在引用它的表之后，
+ * 所有uoffset都指向更高的地址，符合FlatBuffers的格式要求。
+ */
+final class ArrowFlatBuffers {
+
+    private ArrowFlatBuffers() {}
+
+    // 待编码的表，字段按下标设置：Boolean/Byte/Short/Integer/Long为标量，Node为指向子对象的偏移
+    static final class Table implements Node {
+        private final Object[] fields;
+
+        Table(int fieldCount) {
+            this.fields = new Object[fieldCount];
+        }
+
+        Table set(int index, Object value) {
+            fields[index] = value;
+            return this;
+        }
+    }
+
+    interface Node {}
+
+    static final class TableVector implements Node {
+        private final List<Table> tables;
+
+        TableVector(List<Table> tables) {
+            this.tables = tables;
+        }
+    }
+
+    // 由long组成的结构体向量(FieldNode、Buffer都是两个long)
+    static final class StructVector implements Node {
+        private final long[] values;
+        private final int longsPerStruct;
+
+        StructVector(long[] values, int longsPerStruct) {
+            this.values = values;
+            this.longsPerStruct = longsPerStruct;
+        }
+    }
+
+    static final class StringNode implements Node {
+        private final byte[] bytes;
+
+        StringNode(String value) {
+            this.bytes = value.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    static byte[] encode(Table root) {
+        Encoder encoder = new Encoder();
+        encoder.buffer.putInt(0, 0);
+        encoder.position = 4;
+        int rootPosition = encoder.writeTable(root);
+        encoder.buffer.putInt(0, rootPosition);
+        return Arrays.copyOf(encoder.buffer.array(), encoder.position);
+    }
+
+    private static final class Encoder {
+        private ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        private int position;
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, position + bytes))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                grown.put(buffer.array(), 0, position);
+                buffer = grown;
+            }
+        }
+
+        private void align(int alignment) {
+            int padding = (alignment - position % alignment) % alignment;
+            ensure(padding);
+            position += padding;
+        }
+
+        private static int sizeOf(Object value) {
+            if (value instanceof Long) {
+                return 8;
+            }
+            if (value instanceof Integer || value instanceof Node) {
+                return 4;
+            }
+            if (value instanceof Short) {
+                return 2;
+            }
+            return 1;
+        }
+
+        private int writeTable(Table table) {
+            Object[] fields = table.fields;
+            // 表内字段按大小降序排列，保证各自对齐；表起点按8字节对齐
+            Integer[] order = new Integer[fields.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(
+                    fields[b] == null ? 0 : sizeOf(fields[b]), fields[a] == null ? 0 : sizeOf(fields[a])));
+            int[] fieldOffsets = new int[fields.length];
+            int tableSize = 4;
+            for (int index : order) {
+                if (fields[index] == null) {
+                    continue;
+                }
+                int size = sizeOf(fields[index]);
+                tableSize = (tableSize + size - 1) / size * size;
+                fieldOffsets[index] = tableSize;
+                tableSize += size;
+            }
+
+            align(2);
+            int vtablePosition = position;
+            int vtableSize = 4 + 2 * fields.length;
+            ensure(vtableSize);
+            buffer.putShort(position, (short) vtableSize);
+            buffer.putShort(position + 2, (short) tableSize);
+            for (int i = 0; i < fields.length; i++) {
+                buffer.putShort(position + 4 + 2 * i, (short) fieldOffsets[i]);
+            }
+            position += vtableSize;
+
+            align(8);
+            int tablePosition = position;
+            ensure(tableSize);
+            Arrays.fill(buffer.array(), tablePosition, tablePosition + tableSize, (byte) 0);
+            buffer.putInt(tablePosition, tablePosition - vtablePosition);
+            position += tableSize;
+            for (int i = 0; i < fields.length; i++) {
+                Object value = fields[i];
+                int at = tablePosition + fieldOffsets[i];
+                if (value instanceof Long) {
+                    buffer.putLong(at, (Long) value);
+                } else if (value instanceof Integer) {
+                    buffer.putInt(at, (Integer) value);
+                } else if (value instanceof Short) {
+                    buffer.putShort(at, (Short) value);
+                } else if (value instanceof Byte) {
+                    buffer.put(at, (Byte) value);
+                } else if (value instanceof Boolean) {
+                    buffer.put(at, (byte) ((Boolean) value ? 1 : 0));
+                }
+            }
+            // 子对象写在表之后，再回填偏移
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] instanceof Node) {
+                    int at = tablePosition + fieldOffsets[i];
+                    buffer.putInt(at, writeNode((Node) fields[i]) - at);
+                }
+            }
+            return tablePosition;
+        }
+
+        private int writeNode(Node node) {
+            if (node instanceof Table) {
+                return writeTable((Table) node);
+            }
+            if (node instanceof StringNode) {
+                byte[] bytes = ((StringNode) node).bytes;
+                align(4);
+                int start = position;
+                ensure(4 + bytes.length + 1);
+                buffer.putInt(position, bytes.length);
+                buffer.position(position + 4);
+                buffer.put(bytes);
+                buffer.put((byte) 0);
+                buffer.position(0);
+                position += 4 + bytes.length + 1;
+                return start;
+            }
+            if (node instanceof StructVector) {
+                StructVector vector = (StructVector) node;
+                // 长度之后的结构体按8字节对齐
+                align(4);
+                if ((position + 4) % 8 != 0) {
+                    position += 4;
+                }
+                int start = position;
+                ensure(4 + vector.values.length * 8);
+                buffer.putInt(position, vector.values.length / vector.longsPerStruct);
+                for (int i = 0; i < vector.values.length; i++) {
+                    buffer.putLong(position + 4 + 8 * i, vector.values[i]);
+                }
+                position += 4 + vector.values.length * 8;
+                return start;
+            }
+            List<Table> tables = ((TableVector) node).tables;
+            align(4);
+            int start = position;
+            ensure(4 + 4 * tables.size());
+            buffer.putInt(position, tables.size());
+            position += 4 + 4 * tables.size();
+            for (int i = 0; i < tables.size(); i++) {
+                int slot = start + 4 + 4 * i;
+                buffer.putInt(slot, writeTable(tables.get(i)) - slot);
+            }
+            return start;
+        }
+    }
+
+    /**
+     * 按vtable读取FlatBuffers表的字段，buffer为小端，位置均为buffer内的绝对下标。
+     */
+    static final class TableReader {
+        private final ByteBuffer buffer;
+        private final int position;
+
+        private TableReader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        static TableReader root(ByteBuffer buffer) {
+            ByteBuffer ordered = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            return new TableReader(ordered, ordered.getInt(0));
+        }
+
+        // 字段在表内的偏移，字段不存在时为0
+        private int offset(int index) {
+            int vtable = position - buffer.getInt(position);
+            int vtableSize = Short.toUnsignedInt(buffer.getShort(vtable));
+            int entry = 4 + 2 * index;
+            return entry < vtableSize ? Short.toUnsignedInt(buffer.getShort(vtable + entry)) : 0;
+        }
+
+        boolean has(int index) {
+            return offset(index) != 0;
+        }
+
+        byte getByte(int index, byte defaultValue) {
+            int offset = offset(index);
+            return offset == 0 ? defaultValue : buffer.get(position + offset);
+        }
+
+        boolean getBoolean(int index, boolean defaultValue) {
+            int offset = offset(index);
+            return offset == 0 ? defaultValue : buffer.get(position + offset) != 0;
+        }
+
+        short getShort(int index, short defaultValue) {
+            int offset = offset(index);
+            return offset == 0 ? defaultValue : buffer.getShort(position + offset);
+        }
+
+        int getInt(int index, int defaultValue) {
+            int offset = offset(index);
+            return offset == 0 ? defaultValue : buffer.getInt(position + offset);
+        }
+
+        long getLong(int index, long defaultValue) {
+            int offset = offset(index);
+            return offset == 0 ? defaultValue : buffer.getLong(position + offset);
+        }
+
+        private int target(int index) {
+            int offset = offset(index);
+            if (offset == 0) {
+                return -1;
+            }
+            int at = position + offset;
+            return at + buffer.getInt(at);
+        }
+
+        TableReader getTable(int index) {
+            int target = target(index);
+            return target < 0 ? null : new TableReader(buffer, target);
+        }
+
+        String getString(int index) {
+            int target = target(index);
+            if (target < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[buffer.getInt(target)];
+            buffer.get(target + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int getVectorLength(int index) {
+            int target = target(index);
+            return target < 0 ? 0 : buffer.getInt(target);
+        }
+
+        TableReader getTableElement(int index, int element) {
+            int slot = target(index) + 4 + 4 * element;
+            return new TableReader(buffer, slot + buffer.getInt(slot));
+        }
+
+        // 结构体向量中第element个结构体的第field个long
+        long getStructLong(int index, int element, int longsPerStruct, int field) {
+            return buffer.getLong(target(index) + 4 + 8 * (element * longsPerStruct + field));
+        }
+    }
+}
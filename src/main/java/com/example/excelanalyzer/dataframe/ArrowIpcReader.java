@@ -0,0 +1,476 @@
+package com.example.excelanalyzer.dataframe;
+
+import com.example.excelanalyzer.dataframe.ArrowFlatBuffers.TableReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取Arrow IPC流格式(.arrows)或文件格式(.arrow)的数据，直接生成列式DataFrame，不经过逐单元格解析。
+ * 文件整体只读映射：只有一个RecordBatch时Float64列直接使用映射区(零复制)，多个批次时按批整块复制；
+ * 整数、浮点和布尔列转为数值/布尔列，Utf8和字典编码的Utf8列转为字典编码列。
+ * 不支持压缩、大端数据和嵌套类型。
+ */
+public final class ArrowIpcReader {
+
+    private static final byte[] FILE_MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+
+    private enum Kind { NULL, INT, FLOAT, BOOL, UTF8, LARGE_UTF8 }
+
+    private final MappedByteBuffer data;
+    private final List<FieldInfo> fields = new ArrayList<>();
+    // 字典ID -> 字典值(已解码的字符串，空值为null)
+    private final Map<Long, List<String>> dictionaries = new HashMap<>();
+
+    private ArrowIpcReader(MappedByteBuffer data) {
+        this.data = data;
+    }
+
+    public static DataFrame read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Arrow文件超过2GB，暂不支持: " + file.getFileName());
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            return new ArrowIpcReader(data).readMessages(file);
+        }
+    }
+
+    private DataFrame readMessages(Path file) throws IOException {
+        int position = 0;
+        int end = data.capacity();
+        if (startsWithMagic(0)) {
+            // 文件格式：魔数(8字节) + 流格式消息 + Footer + Footer长度(4字节) + 魔数(6字节)
+            if (end < 18 || !startsWithMagic(end - FILE_MAGIC.length)) {
+                throw new IOException("Arrow文件不完整: " + file.getFileName());
+            }
+            position = 8;
+            end = end - FILE_MAGIC.length - 4 - data.getInt(end - FILE_MAGIC.length - 4);
+        }
+
+        // 第一遍读取全部消息头，得到总行数后一次分配各列的存储
+        List<Message> messages = new ArrayList<>();
+        while (position + 4 <= end) {
+            int metadataLength = data.getInt(position);
+            position += 4;
+            if (metadataLength == -1) {
+                if (position + 4 > end) {
+                    break;
+                }
+                metadataLength = data.getInt(position);
+                position += 4;
+            }
+            // 长度为0表示流结束；旧版本的流没有0xFFFFFFFF前缀
+            if (metadataLength == 0) {
+                break;
+            }
+            if (metadataLength < 0 || position + metadataLength > end) {
+                throw new IOException("Arrow消息头无效: " + file.getFileName());
+            }
+            TableReader message = TableReader.root(data.slice(position, metadataLength));
+            position += metadataLength;
+            long bodyLength = message.getLong(3, 0);
+            if (bodyLength < 0 || position + bodyLength > end) {
+                throw new IOException("Arrow消息体不完整: " + file.getFileName());
+            }
+            messages.add(new Message(message.getByte(1, (byte) 0), message.getTable(2), position));
+            position += (int) bodyLength;
+        }
+        if (messages.isEmpty() || messages.get(0).type != ArrowIpcWriter.SCHEMA) {
+            throw new IOException("Arrow数据缺少Schema: " + file.getFileName());
+        }
+
+        readSchema(messages.get(0).header);
+        long totalRows = 0;
+        int batchCount = 0;
+        for (Message message : messages) {
+            if (message.type == ArrowIpcWriter.RECORD_BATCH) {
+                totalRows += message.header.getLong(0, 0);
+                batchCount++;
+            }
+        }
+        if (totalRows > ColumnFile.MAX_ROWS) {
+            throw new IllegalArgumentException("Arrow数据行数超过上限: " + totalRows);
+        }
+        for (FieldInfo field : fields) {
+            field.allocate((int) totalRows, batchCount == 1);
+        }
+
+        int rowOffset = 0;
+        for (Message message : messages) {
+            if (message.type == ArrowIpcWriter.DICTIONARY_BATCH) {
+                readDictionaryBatch(message);
+            } else if (message.type == ArrowIpcWriter.RECORD_BATCH) {
+                rowOffset += readRecordBatch(message.header, message.bodyStart, rowOffset);
+            }
+        }
+
+        List<String> headers = new ArrayList<>(fields.size());
+        List<Column> columns = new ArrayList<>(fields.size());
+        for (FieldInfo field : fields) {
+            headers.add(field.name);
+            columns.add(field.toColumn(rowOffset));
+        }
+        return DataFrame.of(headers, columns);
+    }
+
+    private boolean startsWithMagic(int position) {
+        if (position < 0 || position + FILE_MAGIC.length > data.capacity()) {
+            return false;
+        }
+        for (int i = 0; i < FILE_MAGIC.length; i++) {
+            if (data.get(position + i) != FILE_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void readSchema(TableReader schema) {
+        if (schema.getShort(0, (short) 0) != 0) {
+            throw new IllegalArgumentException("不支持大端字节序的Arrow数据");
+        }
+        for (int i = 0; i < schema.getVectorLength(1); i++) {
+            TableReader field = schema.getTableElement(1, i);
+            String name = field.getString(0);
+            if (field.getVectorLength(5) > 0) {
+                throw new IllegalArgumentException("不支持嵌套类型的Arrow列: " + name);
+            }
+            FieldInfo info = new FieldInfo(name != null ? name : "", field.getByte(2, (byte) 0), field.getTable(3));
+            TableReader dictionary = field.getTable(4);
+            if (dictionary != null) {
+                info.dictionaryId = dictionary.getLong(0, 0);
+                TableReader indexType = dictionary.getTable(1);
+                info.indexBitWidth = indexType != null ? indexType.getInt(0, 32) : 32;
+                // 未给出下标类型时按规范为有符号int32
+                info.indexSigned = indexType == null || indexType.getBoolean(1, false);
+                if (info.kind != Kind.UTF8 && info.kind != Kind.LARGE_UTF8) {
+                    throw new IllegalArgumentException("只支持字符串字典编码的Arrow列: " + info.name);
+                }
+            }
+            fields.add(info);
+        }
+    }
+
+    private void readDictionaryBatch(Message message) {
+        long id = message.header.getLong(0, 0);
+        TableReader batch = message.header.getTable(1);
+        FieldInfo valueField = null;
+        for (FieldInfo field : fields) {
+            if (field.dictionaryId != null && field.dictionaryId == id) {
+                valueField = field;
+                break;
+            }
+        }
+        if (valueField == null || batch == null) {
+            throw new IllegalArgumentException("Arrow字典没有对应的列: " + id);
+        }
+        checkUncompressed(batch);
+        int length = (int) batch.getLong(0, 0);
+        BitSet valid = validity(batch, message.bodyStart, 0, length);
+        List<String> values = readStrings(batch, message.bodyStart, 1, length, valueField.kind == Kind.LARGE_UTF8);
+        for (int i = 0; i < length; i++) {
+            if (valid != null && !valid.get(i)) {
+                values.set(i, null);
+            }
+        }
+        if (message.header.getBoolean(2, false)) {
+            dictionaries.computeIfAbsent(id, key -> new ArrayList<>()).addAll(values);
+        } else {
+            dictionaries.put(id, values);
+        }
+    }
+
+    private int readRecordBatch(TableReader batch, int bodyStart, int rowOffset) {
+        checkUncompressed(batch);
+        int length = (int) batch.getLong(0, 0);
+        int buffer = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            FieldInfo field = fields.get(i);
+            if (field.kind == Kind.NULL) {
+                field.nullRows.set(rowOffset, rowOffset + length);
+                continue;
+            }
+            int nullCount = (int) batch.getStructLong(1, i, 2, 1);
+            BitSet valid = nullCount == 0 ? null : validity(batch, bodyStart, buffer, length);
+            if (valid != null) {
+                BitSet nulls = new BitSet();
+                nulls.set(0, length);
+                nulls.andNot(valid);
+                orShifted(field.nullRows, nulls, rowOffset);
+            }
+            if (field.dictionaryId != null) {
+                field.appendDictionaryIndices(slice(batch, bodyStart, buffer + 1), length, rowOffset, valid,
+                        dictionaries.getOrDefault(field.dictionaryId, new ArrayList<>()));
+                buffer += 2;
+            } else if (field.kind == Kind.UTF8 || field.kind == Kind.LARGE_UTF8) {
+                field.appendStrings(readStrings(batch, bodyStart, buffer + 1, length, field.kind == Kind.LARGE_UTF8),
+                        rowOffset, valid);
+                buffer += 3;
+            } else {
+                ByteBuffer values = slice(batch, bodyStart, buffer + 1);
+                if (field.kind == Kind.BOOL) {
+                    field.appendBooleans(BitSet.valueOf(values), length, rowOffset, valid);
+                } else {
+                    field.appendNumbers(values, length, rowOffset, valid);
+                }
+                buffer += 2;
+            }
+        }
+        return length;
+    }
+
+    private static void checkUncompressed(TableReader batch) {
+        if (batch.has(3)) {
+            throw new IllegalArgumentException("不支持压缩的Arrow数据，请导出为未压缩格式");
+        }
+    }
+
+    // 第index个缓冲区在消息体中的只读视图
+    private ByteBuffer slice(TableReader batch, int bodyStart, int index) {
+        int offset = (int) batch.getStructLong(2, index, 2, 0);
+        int length = (int) batch.getStructLong(2, index, 2, 1);
+        return data.slice(bodyStart + offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // 有效位图，缓冲区为空时表示全部有效，返回null
+    private BitSet validity(TableReader batch, int bodyStart, int index, int length) {
+        ByteBuffer bitmap = slice(batch, bodyStart, index);
+        if (bitmap.remaining() == 0) {
+            return null;
+        }
+        BitSet valid = BitSet.valueOf(bitmap);
+        return valid.cardinality() == length && valid.length() == length ? null : valid;
+    }
+
+    private List<String> readStrings(TableReader batch, int bodyStart, int index, int length, boolean large) {
+        ByteBuffer offsets = slice(batch, bodyStart, index);
+        ByteBuffer bytes = slice(batch, bodyStart, index + 1);
+        List<String> values = new ArrayList<>(length);
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < length; i++) {
+            int start = large ? (int) offsets.getLong(i * 8) : offsets.getInt(i * 4);
+            int stop = large ? (int) offsets.getLong(i * 8 + 8) : offsets.getInt(i * 4 + 4);
+            if (scratch.length < stop - start) {
+                scratch = new byte[stop - start];
+            }
+            bytes.get(start, scratch, 0, stop - start);
+            values.add(new String(scratch, 0, stop - start, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static void orShifted(BitSet target, BitSet bits, int shift) {
+        for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+            int end = bits.nextClearBit(bit);
+            target.set(shift + bit, shift + end);
+            bit = end;
+        }
+    }
+
+    private static final class Message {
+        private final byte type;
+        private final TableReader header;
+        private final int bodyStart;
+
+        private Message(byte type, TableReader header, int bodyStart) {
+            this.type = type;
+            this.header = header;
+            this.bodyStart = bodyStart;
+        }
+    }
+
+    /**
+     * 单列的类型信息和读取中的数据：数值写入numbers，文本/布尔按首次出现的顺序编入字典。
+     */
+    private final class FieldInfo {
+        private final String name;
+        private final Kind kind;
+        private int bitWidth;
+        private boolean signed;
+        private Long dictionaryId;
+        private int indexBitWidth;
+        private boolean indexSigned;
+
+        private DoubleBuffer numbers;
+        private int[] codes;
+        private final BitSet numericRows = new BitSet();
+        private final BitSet nullRows = new BitSet();
+        private final List<Object> dictionary = new ArrayList<>();
+        private final Map<Object, Integer> dictionaryIndex = new HashMap<>();
+        private boolean singleBatch;
+
+        private FieldInfo(String name, byte typeType, TableReader type) {
+            this.name = name;
+            switch (typeType) {
+                case ArrowIpcWriter.TYPE_NULL:
+                    kind = Kind.NULL;
+                    break;
+                case ArrowIpcWriter.TYPE_INT:
+                    kind = Kind.INT;
+                    bitWidth = type.getInt(0, 0);
+                    signed = type.getBoolean(1, false);
+                    break;
+                case ArrowIpcWriter.TYPE_FLOATING_POINT:
+                    kind = Kind.FLOAT;
+                    short precision = type.getShort(0, (short) 0);
+                    if (precision != ArrowIpcWriter.PRECISION_SINGLE && precision != ArrowIpcWriter.PRECISION_DOUBLE) {
+                        throw new IllegalArgumentException("不支持半精度浮点Arrow列: " + name);
+                    }
+                    bitWidth = precision == ArrowIpcWriter.PRECISION_DOUBLE ? 64 : 32;
+                    break;
+                case ArrowIpcWriter.TYPE_BOOL:
+                    kind = Kind.BOOL;
+                    break;
+                case ArrowIpcWriter.TYPE_UTF8:
+                    kind = Kind.UTF8;
+                    break;
+                case ArrowIpcWriter.TYPE_LARGE_UTF8:
+                    kind = Kind.LARGE_UTF8;
+                    break;
+                default:
+                    throw new IllegalArgumentException("不支持的Arrow列类型(" + typeType + "): " + name);
+            }
+        }
+
+        private void allocate(int rows, boolean singleBatch) {
+            this.singleBatch = singleBatch;
+            if (kind == Kind.INT || kind == Kind.FLOAT) {
+                // 单个批次的Float64列稍后直接引用映射区
+                if (!(singleBatch && kind == Kind.FLOAT && bitWidth == 64)) {
+                    numbers = DoubleBuffer.allocate(rows);
+                }
+            } else if (kind != Kind.NULL) {
+                codes = new int[rows];
+            }
+        }
+
+        private void markNumeric(int rowOffset, int length, BitSet valid) {
+            if (valid == null) {
+                numericRows.set(rowOffset, rowOffset + length);
+            } else {
+                orShifted(numericRows, valid, rowOffset);
+            }
+        }
+
+        private void appendNumbers(ByteBuffer values, int length, int rowOffset, BitSet valid) {
+            markNumeric(rowOffset, length, valid);
+            if (kind == Kind.FLOAT && bitWidth == 64) {
+                DoubleBuffer source = values.asDoubleBuffer().limit(length);
+                if (singleBatch) {
+                    numbers = source;
+                } else {
+                    numbers.put(rowOffset, source, 0, length);
+                }
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                numbers.put(rowOffset + i, numberAt(values, i));
+            }
+        }
+
+        private double numberAt(ByteBuffer values, int i) {
+            if (kind == Kind.FLOAT) {
+                return values.getFloat(i * 4);
+            }
+            switch (bitWidth) {
+                case 8:
+                    return signed ? values.get(i) : Byte.toUnsignedInt(values.get(i));
+                case 16:
+                    return signed ? values.getShort(i * 2) : Short.toUnsignedInt(values.getShort(i * 2));
+                case 32:
+                    return signed ? values.getInt(i * 4) : Integer.toUnsignedLong(values.getInt(i * 4));
+                default:
+                    long value = values.getLong(i * 8);
+                    // 无符号64位整数超过Long.MAX_VALUE时按两倍的高63位加最低位换算
+                    return signed || value >= 0 ? value : (value >>> 1) * 2.0 + (value & 1);
+            }
+        }
+
+        private void appendBooleans(BitSet bits, int length, int rowOffset, BitSet valid) {
+            for (int i = 0; i < length; i++) {
+                if (valid == null || valid.get(i)) {
+                    codes[rowOffset + i] = code(bits.get(i));
+                }
+            }
+        }
+
+        private void appendStrings(List<String> values, int rowOffset, BitSet valid) {
+            for (int i = 0; i < values.size(); i++) {
+                if (valid == null || valid.get(i)) {
+                    codes[rowOffset + i] = code(values.get(i));
+                }
+            }
+        }
+
+        // Arrow字典下标按首次出现的顺序重新编码，未使用的字典项不进入列字典
+        private void appendDictionaryIndices(ByteBuffer indices, int length, int rowOffset, BitSet valid,
+                                             List<String> values) {
+            int[] mapping = new int[values.size()];
+            Arrays.fill(mapping, -1);
+            for (int i = 0; i < length; i++) {
+                if (valid != null && !valid.get(i)) {
+                    continue;
+                }
+                long position;
+                switch (indexBitWidth) {
+                    case 8:
+                        position = indexSigned ? indices.get(i) : Byte.toUnsignedInt(indices.get(i));
+                        break;
+                    case 16:
+                        position = indexSigned ? indices.getShort(i * 2) : Short.toUnsignedInt(indices.getShort(i * 2));
+                        break;
+                    case 64:
+                        // 无符号下标超过Long.MAX_VALUE时为负数，同样按越界处理
+                        position = indices.getLong(i * 8);
+                        break;
+                    default:
+                        position = indexSigned ? indices.getInt(i * 4) : Integer.toUnsignedLong(indices.getInt(i * 4));
+                }
+                if (position < 0 || position >= values.size()) {
+                    throw new IllegalArgumentException("Arrow字典下标越界: " + name + " 第 " + (rowOffset + i) + " 行");
+                }
+                int index = (int) position;
+                if (values.get(index) == null) {
+                    nullRows.set(rowOffset + i);
+                    continue;
+                }
+                if (mapping[index] < 0) {
+                    mapping[index] = code(values.get(index));
+                }
+                codes[rowOffset + i] = mapping[index];
+            }
+        }
+
+        private int code(Object value) {
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndex.put(value, code);
+            }
+            return code;
+        }
+
+        private Column toColumn(int rows) {
+            return new Column(name, rows, numbers, codes != null ? IntBuffer.wrap(codes) : null,
+                    numericRows, nullRows, dictionary);
+        }
+    }
+}
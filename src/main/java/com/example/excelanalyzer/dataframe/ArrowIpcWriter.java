@@ -0,0 +1,301 @@
+package com.example.excelanalyzer.dataframe;
+
+import com.example.excelanalyzer.dataframe.ArrowFlatBuffers.StringNode;
+import com.example.excelanalyzer.dataframe.ArrowFlatBuffers.StructVector;
+import com.example.excelanalyzer.dataframe.ArrowFlatBuffers.Table;
+import com.example.excelanalyzer.dataframe.ArrowFlatBuffers.TableVector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将DataFrame写成Arrow IPC流格式(Schema消息、字典消息、若干RecordBatch消息和结束标记)，
+ * pyarrow的 {@code pa.ipc.open_stream}、Spark等可直接读取。各列按内部存储选择Arrow类型：
+ * 纯数值列为Float64，纯布尔列为Bool，文本列为字典编码的Utf8(索引即列的字典编码)，全空列为Null。
+ * 数值和字典编码按 {@link #BATCH_ROWS} 行一批从列缓冲区整块复制，不逐个单元格转换；
+ * 只有数值与文本混合的列需要逐行把数值转为字符串并重新编码。
+ */
+public final class ArrowIpcWriter {
+
+    public static final int BATCH_ROWS = 65536;
+
+    static final int CONTINUATION = 0xFFFFFFFF;
+    static final short METADATA_V5 = 4;
+
+    // MessageHeader
+    static final byte SCHEMA = 1;
+    static final byte DICTIONARY_BATCH = 2;
+    static final byte RECORD_BATCH = 3;
+
+    // Type
+    static final byte TYPE_NULL = 1;
+    static final byte TYPE_INT = 2;
+    static final byte TYPE_FLOATING_POINT = 3;
+    static final byte TYPE_UTF8 = 5;
+    static final byte TYPE_BOOL = 6;
+    static final byte TYPE_LARGE_UTF8 = 20;
+
+    static final short PRECISION_SINGLE = 1;
+    static final short PRECISION_DOUBLE = 2;
+
+    private enum Encoding { FLOAT64, BOOL, DICTIONARY, NULL }
+
+    private final DataFrame frame;
+    private final WritableByteChannel out;
+    private final Encoding[] encodings;
+    // 字典编码列的Arrow字典值和索引(纯文本列直接使用列的字典编码，索引为null)
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private final int[][] remappedIndices;
+
+    private ArrowIpcWriter(DataFrame frame, WritableByteChannel out) {
+        this.frame = frame;
+        this.out = out;
+        this.encodings = new Encoding[frame.getColumnCount()];
+        this.remappedIndices = new int[frame.getColumnCount()][];
+        for (int i = 0; i < encodings.length; i++) {
+            prepare(i, frame.getColumn(i));
+        }
+    }
+
+    public static void write(DataFrame frame, WritableByteChannel out) throws IOException {
+        ArrowIpcWriter writer = new ArrowIpcWriter(frame, out);
+        writer.writeSchema();
+        writer.writeDictionaries();
+        for (int from = 0; from < frame.getRowCount(); from += BATCH_ROWS) {
+            writer.writeRecordBatch(from, Math.min(from + BATCH_ROWS, frame.getRowCount()));
+        }
+        writer.writeInts(CONTINUATION, 0);
+    }
+
+    private void prepare(int index, Column column) {
+        List<Object> dictionary = column.getDictionary();
+        boolean hasNumbers = column.numberBuffer() != null;
+        List<String> values = new ArrayList<>(dictionary.size());
+        for (Object entry : dictionary) {
+            values.add(entry.toString());
+        }
+        if (dictionary.isEmpty()) {
+            encodings[index] = hasNumbers ? Encoding.FLOAT64 : Encoding.NULL;
+        } else if (!hasNumbers && dictionary.stream().allMatch(entry -> entry instanceof Boolean)) {
+            encodings[index] = Encoding.BOOL;
+        } else {
+            encodings[index] = Encoding.DICTIONARY;
+            if (hasNumbers) {
+                // 混合列：数值按字符串形式追加到字典末尾
+                Map<String, Integer> codes = new HashMap<>();
+                for (int code = 0; code < values.size(); code++) {
+                    codes.putIfAbsent(values.get(code), code);
+                }
+                int[] indices = new int[column.size()];
+                for (int row = 0; row < indices.length; row++) {
+                    if (column.isNumber(row)) {
+                        String text = Double.toString(column.getDouble(row));
+                        Integer code = codes.get(text);
+                        if (code == null) {
+                            code = values.size();
+                            values.add(text);
+                            codes.put(text, code);
+                        }
+                        indices[row] = code;
+                    } else if (!column.isNull(row)) {
+                        indices[row] = column.getCode(row);
+                    }
+                }
+                remappedIndices[index] = indices;
+            }
+        }
+        dictionaries.add(values);
+    }
+
+    private void writeSchema() throws IOException {
+        List<Table> fields = new ArrayList<>();
+        for (int i = 0; i < encodings.length; i++) {
+            Table field = new Table(7)
+                    .set(0, new StringNode(frame.getHeaders().get(i)))
+                    .set(1, Boolean.TRUE)
+                    .set(5, new TableVector(new ArrayList<>()));
+            switch (encodings[i]) {
+                case FLOAT64:
+                    field.set(2, TYPE_FLOATING_POINT).set(3, new Table(1).set(0, PRECISION_DOUBLE));
+                    break;
+                case BOOL:
+                    field.set(2, TYPE_BOOL).set(3, new Table(0));
+                    break;
+                case DICTIONARY:
+                    field.set(2, TYPE_UTF8).set(3, new Table(0))
+                            .set(4, new Table(4)
+                                    .set(0, (long) i)
+                                    .set(1, new Table(2).set(0, 32).set(1, Boolean.TRUE))
+                                    .set(2, Boolean.FALSE));
+                    break;
+                default:
+                    field.set(2, TYPE_NULL).set(3, new Table(0));
+            }
+            fields.add(field);
+        }
+        Table schema = new Table(4).set(0, (short) 0).set(1, new TableVector(fields));
+        writeMessage(SCHEMA, schema, new ArrayList<>());
+    }
+
+    private void writeDictionaries() throws IOException {
+        for (int i = 0; i < encodings.length; i++) {
+            if (encodings[i] != Encoding.DICTIONARY) {
+                continue;
+            }
+            List<String> values = dictionaries.get(i);
+            ByteBuffer offsets = allocate((values.size() + 1) * Integer.BYTES);
+            List<byte[]> encoded = new ArrayList<>(values.size());
+            int length = 0;
+            offsets.putInt(0);
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                length += bytes.length;
+                offsets.putInt(length);
+            }
+            ByteBuffer data = allocate(length);
+            for (byte[] bytes : encoded) {
+                data.put(bytes);
+            }
+            List<ByteBuffer> buffers = new ArrayList<>();
+            buffers.add(allocate(0));
+            buffers.add(offsets.flip());
+            buffers.add(data.flip());
+            Table batch = recordBatch(values.size(), new long[] {values.size(), 0}, buffers);
+            Table dictionaryBatch = new Table(3).set(0, (long) i).set(1, batch).set(2, Boolean.FALSE);
+            writeMessage(DICTIONARY_BATCH, dictionaryBatch, buffers);
+        }
+    }
+
+    private void writeRecordBatch(int from, int to) throws IOException {
+        int rows = to - from;
+        long[] nodes = new long[encodings.length * 2];
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < encodings.length; i++) {
+            Column column = frame.getColumn(i);
+            BitSet nulls = column.nullRowBits().get(from, to);
+            int nullCount = nulls.cardinality();
+            nodes[2 * i] = rows;
+            nodes[2 * i + 1] = nullCount;
+            switch (encodings[i]) {
+                case FLOAT64: {
+                    buffers.add(validity(nulls, nullCount, rows));
+                    ByteBuffer values = allocate(rows * Double.BYTES);
+                    DoubleBuffer numbers = column.numberBuffer();
+                    values.asDoubleBuffer().put(numbers.slice(from, rows));
+                    buffers.add(values);
+                    break;
+                }
+                case BOOL: {
+                    buffers.add(validity(nulls, nullCount, rows));
+                    List<Object> dictionary = column.getDictionary();
+                    BitSet bits = new BitSet(rows);
+                    for (int row = from; row < to; row++) {
+                        if (!column.isNull(row) && Boolean.TRUE.equals(dictionary.get(column.getCode(row)))) {
+                            bits.set(row - from);
+                        }
+                    }
+                    buffers.add(bitmap(bits, rows));
+                    break;
+                }
+                case DICTIONARY: {
+                    buffers.add(validity(nulls, nullCount, rows));
+                    ByteBuffer indices = allocate(rows * Integer.BYTES);
+                    if (remappedIndices[i] != null) {
+                        indices.asIntBuffer().put(remappedIndices[i], from, rows);
+                    } else {
+                        IntBuffer codes = column.codeBuffer();
+                        indices.asIntBuffer().put(codes.slice(from, rows));
+                    }
+                    buffers.add(indices);
+                    break;
+                }
+                default:
+                    nodes[2 * i + 1] = rows;
+            }
+        }
+        writeMessage(RECORD_BATCH, recordBatch(rows, nodes, buffers), buffers);
+    }
+
+    // RecordBatch的buffers按8字节对齐依次排列在消息体中
+    private static Table recordBatch(long length, long[] nodes, List<ByteBuffer> buffers) {
+        long[] layout = new long[buffers.size() * 2];
+        long offset = 0;
+        for (int i = 0; i < buffers.size(); i++) {
+            layout[2 * i] = offset;
+            layout[2 * i + 1] = buffers.get(i).remaining();
+            offset += align8(buffers.get(i).remaining());
+        }
+        return new Table(5)
+                .set(0, length)
+                .set(1, new StructVector(nodes, 2))
+                .set(2, new StructVector(layout, 2));
+    }
+
+    // 没有空值时省略有效位图
+    private static ByteBuffer validity(BitSet nulls, int nullCount, int rows) {
+        if (nullCount == 0) {
+            return allocate(0);
+        }
+        BitSet valid = new BitSet(rows);
+        valid.set(0, rows);
+        valid.andNot(nulls);
+        return bitmap(valid, rows);
+    }
+
+    private static ByteBuffer bitmap(BitSet bits, int rows) {
+        ByteBuffer buffer = allocate((rows + 7) / 8);
+        buffer.put(bits.toByteArray());
+        return buffer.clear();
+    }
+
+    private void writeMessage(byte headerType, Table header, List<ByteBuffer> body) throws IOException {
+        long bodyLength = 0;
+        for (ByteBuffer buffer : body) {
+            bodyLength += align8(buffer.remaining());
+        }
+        Table message = new Table(5)
+                .set(0, METADATA_V5)
+                .set(1, headerType)
+                .set(2, header)
+                .set(3, bodyLength);
+        byte[] metadata = ArrowFlatBuffers.encode(message);
+        int paddedLength = (int) align8(metadata.length);
+        writeInts(CONTINUATION, paddedLength);
+        writeFully(ByteBuffer.wrap(metadata));
+        writeFully(ByteBuffer.allocate(paddedLength - metadata.length));
+        for (ByteBuffer buffer : body) {
+            int padding = (int) (align8(buffer.remaining()) - buffer.remaining());
+            writeFully(buffer);
+            writeFully(ByteBuffer.allocate(padding));
+        }
+    }
+
+    private void writeInts(int first, int second) throws IOException {
+        writeFully(allocate(8).putInt(first).putInt(second).flip());
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static long align8(long length) {
+        return (length + 7) & ~7L;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.excelanalyzer.dataframe;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+
+/**
+ * 列式存储的单列数据：数值单元格存入 double 缓冲区，其余单元格(文本、布尔等)按字典编码存入 int 缓冲区，
+ * 空值用位图标记。两个缓冲区按需分配，纯数值列不占用字典编码空间，反之亦然。
+ * 解析时缓冲区包装堆内数组；由 {@link ColumnFile} 打开的列直接映射列文件，与Arrow导入的列一样只读。
+ */
+public class Column {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String name;
+    private int size;
+    private int capacity;
+
+    private DoubleBuffer numbers;
+    private final BitSet numericRows = new BitSet();
+    private final BitSet nullRows = new BitSet();
+
+    private IntBuffer codes;
+    private final List<Object> dictionary = new ArrayList<>();
+    private final Map<Object, Integer> dictionaryIndex = new HashMap<>();
+
+    // 字典项的数值解析结果缓存，每个不同的值只解析一次
+    private double[] dictionaryNumbers;
+    private BitSet numericEntries;
+    private BitSet dateEntries;
+    private int parsedEntryCount;
+
+    // 数值的秩，相关分析时按需计算并缓存，追加数据后失效
+    private ColumnRanks numericRanks;
+
+    // 映射自列文件或由Arrow数据导入的只读列，不能再追加数据
+    private final boolean readOnly;
+
+    public Column(String name) {
+        this.name = name;
+        this.readOnly = false;
+    }
+
+    // 由ColumnFile/ArrowIpcReader创建，numbers/codes没有对应单元格时为null
+    Column(String name, int size, DoubleBuffer numbers, IntBuffer codes, BitSet numericRows, BitSet nullRows,
+           List<Object> dictionary) {
+        this.name = name;
+        this.size = size;
+        this.capacity = size;
+        this.numbers = numbers;
+        this.codes = codes;
+        this.numericRows.or(numericRows);
+        this.nullRows.or(nullRows);
+        for (Object value : dictionary) {
+            dictionaryIndex.put(value, this.dictionary.size());
+            this.dictionary.add(value);
+        }
+        this.readOnly = true;
+    }
+
+    public static Column of(String name, List<?> values) {
+        Column column = new Column(name);
+        for (Object value : values) {
+            column.append(value);
+        }
+        return column;
+    }
+
+    public void append(Object value) {
+        checkWritable();
+        ensureCapacity(size + 1);
+        numericRanks = null;
+        if (value == null) {
+            nullRows.set(size);
+        } else if (value instanceof Double) {
+            if (numbers == null) {
+                numbers = DoubleBuffer.allocate(capacity);
+            }
+            numbers.put(size, (Double) value);
+            numericRows.set(size);
+        } else {
+            if (codes == null) {
+                codes = IntBuffer.allocate(capacity);
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndex.put(value, code);
+            }
+            codes.put(size, code);
+        }
+        size++;
+    }
+
+    // 追加另一列的全部数据(例如并行解析的分块)，字典编码按本列字典重映射
+    public void appendAll(Column other) {
+        checkWritable();
+        ensureCapacity(size + other.size);
+        numericRanks = null;
+        int[] codeMapping = new int[other.dictionary.size()];
+        for (int code = 0; code < codeMapping.length; code++) {
+            Object value = other.dictionary.get(code);
+            Integer mapped = dictionaryIndex.get(value);
+            if (mapped == null) {
+                mapped = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndex.put(value, mapped);
+            }
+            codeMapping[code] = mapped;
+        }
+        if (other.numbers != null && numbers == null) {
+            numbers = DoubleBuffer.allocate(capacity);
+        }
+        if (other.codes != null && codes == null) {
+            codes = IntBuffer.allocate(capacity);
+        }
+        for (int row = 0; row < other.size; row++) {
+            if (other.nullRows.get(row)) {
+                nullRows.set(size + row);
+            } else if (other.numericRows.get(row)) {
+                numbers.put(size + row, other.numbers.get(row));
+                numericRows.set(size + row);
+            } else {
+                codes.put(size + row, codeMapping[other.codes.get(row)]);
+            }
+        }
+        size += other.size;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("列 " + name + " 为只读列，不能追加数据");
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+        while (newCapacity < required) {
+            newCapacity += newCapacity >> 1;
+        }
+        if (numbers != null) {
+            numbers = DoubleBuffer.wrap(Arrays.copyOf(numbers.array(), newCapacity));
+        }
+        if (codes != null) {
+            codes = IntBuffer.wrap(Arrays.copyOf(codes.array(), newCapacity));
+        }
+        capacity = newCapacity;
+    }
+
+    public String getName() { return name; }
+
+    public int size() { return size; }
+
+    public boolean isNull(int row) { return nullRows.get(row); }
+
+    public boolean isNumber(int row) { return numericRows.get(row); }
+
+    public int nullCount() { return nullRows.cardinality(); }
+
+    public int numberCount() { return numericRows.cardinality(); }
+
+    public double getDouble(int row) { return numbers.get(row); }
+
+    public int getCode(int row) { return codes.get(row); }
+
+    public boolean isReadOnly() { return readOnly; }
+
+    public List<Object> getDictionary() { return Collections.unmodifiableList(dictionary); }
+
+    public Object get(int row) {
+        if (nullRows.get(row)) {
+            return null;
+        }
+        if (numericRows.get(row)) {
+            return numbers.get(row);
+        }
+        return dictionary.get(codes.get(row));
+    }
+
+    // 各字典项出现的次数
+    public int[] dictionaryCounts() {
+        int[] counts = new int[dictionary.size()];
+        for (int row = 0; row < size; row++) {
+            if (!numericRows.get(row) && !nullRows.get(row)) {
+                counts[codes.get(row)]++;
+            }
+        }
+        return counts;
+    }
+
+    // 按行顺序返回数值单元格(不含可解析为数值的文本)
+    public double[] numberValues() {
+        double[] result = new double[numericRows.cardinality()];
+        int count = 0;
+        for (int row = numericRows.nextSetBit(0); row >= 0; row = numericRows.nextSetBit(row + 1)) {
+            result[count++] = numbers.get(row);
+        }
+        return result;
+    }
+
+    // 按行顺序遍历数值单元格(不含可解析为数值的文本)，不复制数据
+    public void forEachNumberCell(DoubleConsumer action) {
+        for (int row = numericRows.nextSetBit(0); row >= 0; row = numericRows.nextSetBit(row + 1)) {
+            action.accept(numbers.get(row));
+        }
+    }
+
+    // 以下供ColumnFile、ArrowIpcWriter读取列数据，返回内部数据的只读视图
+    DoubleBuffer numberBuffer() { return numbers == null ? null : numbers.asReadOnlyBuffer(); }
+
+    IntBuffer codeBuffer() { return codes == null ? null : codes.asReadOnlyBuffer(); }
+
+    BitSet numericRowBits() { return numericRows; }
+
+    BitSet nullRowBits() { return nullRows; }
+
+    // 字典项是否可按数值解析(例如文本单元格 "12.5")
+    public boolean isNumericEntry(int code) {
+        parseDictionary();
+        return numericEntries.get(code);
+    }
+
+    // 字典项是否为日期文本(yyyy-MM-dd、MM/dd/yyyy、yyyy/MM/dd)
+    public boolean isDateEntry(int code) {
+        parseDictionary();
+        return dateEntries.get(code);
+    }
+
+    public double numericEntryValue(int code) {
+        parseDictionary();
+        return dictionaryNumbers[code];
+    }
+
+    // 按行顺序遍历所有可解析为数值的非空单元格，不复制数据
+    public void forEachNumber(DoubleConsumer action) {
+        parseDictionary();
+        for (int row = 0; row < size; row++) {
+            if (numericRows.get(row)) {
+                action.accept(numbers.get(row));
+            } else if (!nullRows.get(row) && numericEntries.get(codes.get(row))) {
+                action.accept(dictionaryNumbers[codes.get(row)]);
+            }
+        }
+    }
+
+    // 按行顺序返回所有可解析为数值的非空单元格
+    public double[] toNumericArray() {
+        parseDictionary();
+        double[] result = new double[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (numericRows.get(row)) {
+                result[count++] = numbers.get(row);
+            } else if (!nullRows.get(row) && numericEntries.get(codes.get(row))) {
+                result[count++] = dictionaryNumbers[codes.get(row)];
+            }
+        }
+        return count == size ? result : Arrays.copyOf(result, count);
+    }
+
+    // 可解析为数值的非空单元格个数，等于toNumericArray()的长度，不复制数据
+    public int numericCellCount() {
+        parseDictionary();
+        int count = numericRows.cardinality();
+        if (numericEntries.isEmpty()) {
+            return count;
+        }
+        for (int row = 0; row < size; row++) {
+            if (!numericRows.get(row) && !nullRows.get(row) && numericEntries.get(codes.get(row))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // toNumericArray() 各数值的秩，同一列参与多对秩相关计算时只排序一次
+    public synchronized ColumnRanks numericRanks() {
+        if (numericRanks == null) {
+            numericRanks = ColumnRanks.of(toNumericArray());
+        }
+        return numericRanks;
+    }
+
+    // 解析字典项的数值/日期分类；多个线程并发读取同一列之前须先调用
+    public void parseDictionary() {
+        if (dictionaryNumbers == null) {
+            dictionaryNumbers = new double[Math.max(dictionary.size(), 1)];
+            numericEntries = new BitSet();
+            dateEntries = new BitSet();
+        }
+        if (parsedEntryCount == dictionary.size()) {
+            return;
+        }
+        if (dictionaryNumbers.length < dictionary.size()) {
+            dictionaryNumbers = Arrays.copyOf(dictionaryNumbers, dictionary.size());
+        }
+        ValueLexer lexer = new ValueLexer();
+        for (int code = parsedEntryCount; code < dictionary.size(); code++) {
+            Object entry = dictionary.get(code);
+            CharSequence text = entry instanceof CharSequence ? (CharSequence) entry : entry.toString();
+            ValueLexer.Kind kind = lexer.lex(text);
+            if (ValueLexer.isNumber(kind)) {
+                dictionaryNumbers[code] = lexer.doubleValue();
+                numericEntries.set(code);
+            } else if (kind == ValueLexer.Kind.DATE) {
+                dateEntries.set(code);
+            }
+        }
+        parsedEntryCount = dictionary.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.excelanalyzer.dataframe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 单列的列文件格式(小端)：32字节文件头之后依次为数值区(size个double)、数值行位图、空值行位图、
+ * 字典编码区(size个int)和字典。各区的偏移量由文件头中的行数和位图长度推算，数值区和字典编码区
+ * 通过 {@link FileChannel#map} 只读映射，读取时不复制；位图和字典较小，读入堆内。
+ */
+public final class ColumnFile {
+
+    private static final int MAGIC = 0x4C4F4358; // "XCOL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final int HAS_NUMBERS = 1;
+    private static final int HAS_CODES = 2;
+
+    private static final byte STRING_ENTRY = 0;
+    private static final byte BOOLEAN_ENTRY = 1;
+
+    // 单个映射区不能超过2GB
+    public static final int MAX_ROWS = Integer.MAX_VALUE / Double.BYTES;
+
+    private ColumnFile() {}
+
+    public static void write(Column column, Path file) throws IOException {
+        int size = column.size();
+        if (size > MAX_ROWS) {
+            throw new IllegalArgumentException("列 " + column.getName() + " 行数超过列文件上限: " + size);
+        }
+        DoubleBuffer numbers = column.numberBuffer();
+        IntBuffer codes = column.codeBuffer();
+        long[] numericWords = column.numericRowBits().toLongArray();
+        long[] nullWords = column.nullRowBits().toLongArray();
+        List<Object> dictionary = column.getDictionary();
+        int flags = (numbers != null ? HAS_NUMBERS : 0) | (codes != null ? HAS_CODES : 0);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(flags)
+                    .putInt(numericWords.length).putInt(nullWords.length).putInt(dictionary.size());
+            writeFully(channel, header.clear(), 0);
+
+            long position = HEADER_BYTES;
+            if (numbers != null) {
+                map(channel, FileChannel.MapMode.READ_WRITE, position, (long) size * Double.BYTES)
+                        .asDoubleBuffer().put(numbers.limit(size));
+                position += (long) size * Double.BYTES;
+            }
+            position = writeWords(channel, numericWords, position);
+            position = writeWords(channel, nullWords, position);
+            if (codes != null) {
+                map(channel, FileChannel.MapMode.READ_WRITE, position, (long) size * Integer.BYTES)
+                        .asIntBuffer().put(codes.limit(size));
+                position += (long) size * Integer.BYTES;
+            }
+
+            // 字典：类型(1字节)、UTF-8长度(int)和内容；布尔值以外的字典项按字符串保存
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel.position(position)), 64 * 1024));
+            for (Object entry : dictionary) {
+                if (entry instanceof Boolean) {
+                    out.writeByte(BOOLEAN_ENTRY);
+                    out.writeBoolean((Boolean) entry);
+                } else {
+                    byte[] text = entry.toString().getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(STRING_ENTRY);
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    public static Column map(Path file, String name) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("列文件不完整: " + file);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不是有效的列文件: " + file);
+            }
+            int size = header.getInt();
+            int flags = header.getInt();
+            int numericWords = header.getInt();
+            int nullWords = header.getInt();
+            int dictionarySize = header.getInt();
+
+            long position = HEADER_BYTES;
+            DoubleBuffer numbers = null;
+            if ((flags & HAS_NUMBERS) != 0) {
+                numbers = map(channel, FileChannel.MapMode.READ_ONLY, position, (long) size * Double.BYTES)
+                        .asDoubleBuffer();
+                position += (long) size * Double.BYTES;
+            }
+            BitSet numericRows = readWords(channel, position, numericWords);
+            position += (long) numericWords * Long.BYTES;
+            BitSet nullRows = readWords(channel, position, nullWords);
+            position += (long) nullWords * Long.BYTES;
+            IntBuffer codes = null;
+            if ((flags & HAS_CODES) != 0) {
+                codes = map(channel, FileChannel.MapMode.READ_ONLY, position, (long) size * Integer.BYTES)
+                        .asIntBuffer();
+                position += (long) size * Integer.BYTES;
+            }
+
+            List<Object> dictionary = new ArrayList<>(dictionarySize);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(position)), 64 * 1024));
+            for (int i = 0; i < dictionarySize; i++) {
+                if (in.readByte() == BOOLEAN_ENTRY) {
+                    dictionary.add(in.readBoolean());
+                } else {
+                    byte[] text = new byte[in.readInt()];
+                    in.readFully(text);
+                    dictionary.add(new String(text, StandardCharsets.UTF_8));
+                }
+            }
+            return new Column(name, size, numbers, codes, numericRows, nullRows, dictionary);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long length)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static long writeWords(FileChannel channel, long[] words, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(words);
+        writeFully(channel, buffer, position);
+        return position + (long) words.length * Long.BYTES;
+    }
+
+    private static BitSet readWords(FileChannel channel, long position, int count) throws IOException {
+        if (count == 0) {
+            return new BitSet();
+        }
+        LongBuffer words = map(channel, FileChannel.MapMode.READ_ONLY, position, (long) count * Long.BYTES)
+                .asLongBuffer();
+        return BitSet.valueOf(words);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.excelanalyzer.dataframe;
+
+/**
+ * 一组数值的秩：按值排序后的行顺序、平均秩(相同值取平均，与commons-math NaturalRanking默认方式一致)
+ * 和从0开始的紧凑秩，以及相同值组成的对数。每列只需排序一次，Spearman和Kendall相关系数都基于它计算。
+ */
+public class ColumnRanks {
+
+    private final int[] order;
+    private final double[] averageRanks;
+    private final int[] denseRanks;
+    private final long tiedPairs;
+
+    private ColumnRanks(int[] order, double[] averageRanks, int[] denseRanks, long tiedPairs) {
+        this.order = order;
+        this.averageRanks = averageRanks;
+        this.denseRanks = denseRanks;
+        this.tiedPairs = tiedPairs;
+    }
+
+    // 与commons-math的Spearman默认行为一致，NaN无法排序
+    public static ColumnRanks of(double[] values) {
+        for (double value : values) {
+            if (Double.isNaN(value)) {
+                throw new IllegalArgumentException("秩相关分析的数据中不能包含NaN");
+            }
+        }
+        int n = values.length;
+        int[] order = sortedOrder(values);
+        double[] averageRanks = new double[n];
+        int[] denseRanks = new int[n];
+        long tiedPairs = 0;
+        int dense = 0;
+        for (int start = 0; start < n; dense++) {
+            int end = start + 1;
+            while (end < n && Double.compare(values[order[end]], values[order[start]]) == 0) {
+                end++;
+            }
+            // 第start+1到第end位的平均秩
+            double rank = (start + 1 + end) / 2.0;
+            for (int k = start; k < end; k++) {
+                averageRanks[order[k]] = rank;
+                denseRanks[order[k]] = dense;
+            }
+            long ties = end - start;
+            tiedPairs += ties * (ties - 1) / 2;
+            start = end;
+        }
+        return new ColumnRanks(order, averageRanks, denseRanks, tiedPairs);
+    }
+
+    // 按值升序的稳定归并排序，返回行下标
+    private static int[] sortedOrder(double[] values) {
+        int n = values.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int from = 0; from < n - width; from += width << 1) {
+                int middle = from + width;
+                int to = Math.min(middle + width, n);
+                int left = from;
+                int right = middle;
+                int out = from;
+                while (left < middle && right < to) {
+                    buffer[out++] = Double.compare(values[order[right]], values[order[left]]) < 0
+                            ? order[right++] : order[left++];
+                }
+                while (left < middle) {
+                    buffer[out++] = order[left++];
+                }
+                while (right < to) {
+                    buffer[out++] = order[right++];
+                }
+                System.arraycopy(buffer, from, order, from, to - from);
+            }
+        }
+        return order;
+    }
+
+    public int size() { return order.length; }
+
+    // 按值升序排列的行下标，相同值保持原有行顺序
+    public int[] getOrder() { return order; }
+
+    // 各行的平均秩(从1开始)
+    public double[] getAverageRanks() { return averageRanks; }
+
+    // 各行的紧凑秩(从0开始，相同值相同，相邻的不同值相差1)
+    public int[] getDenseRanks() { return denseRanks; }
+
+    // 值相同的行对数，即各组相同值个数t的t(t-1)/2之和
+    public long getTiedPairs() { return tiedPairs; }
+}
@@ -0,0 +1,91 @@
+package com.example.excelanalyzer.dataframe;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析后的表格数据，按列存储。行视图 {@link #asRowMaps()} 按需生成，供接口响应沿用原有的行结构。
+ */
+public class DataFrame {
+
+    private final List<String> headers;
+    private final List<Column> columns = new ArrayList<>();
+    // 表头重名时后出现的列生效，与原先按列名写入Map的行为一致
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private int rowCount;
+
+    public DataFrame(List<String> headers) {
+        this.headers = new ArrayList<>(headers);
+        for (int i = 0; i < headers.size(); i++) {
+            columns.add(new Column(headers.get(i)));
+            columnIndex.put(headers.get(i), i);
+        }
+    }
+
+    // 由已有的列组成(例如从列文件映射的列)，各列行数须相同
+    public static DataFrame of(List<String> headers, List<Column> columns) {
+        if (headers.size() != columns.size()) {
+            throw new IllegalArgumentException("表头与列数不一致: " + headers.size() + " / " + columns.size());
+        }
+        DataFrame frame = new DataFrame(headers);
+        frame.rowCount = columns.isEmpty() ? 0 : columns.get(0).size();
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).size() != frame.rowCount) {
+                throw new IllegalArgumentException("各列行数不一致: " + frame.rowCount + " / " + columns.get(i).size());
+            }
+            frame.columns.set(i, columns.get(i));
+        }
+        return frame;
+    }
+
+    public void appendRow(Object[] values) {
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).append(values[i]);
+        }
+        rowCount++;
+    }
+
+    // 按列追加另一个相同表头的数据集
+    public void appendFrame(DataFrame other) {
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).appendAll(other.columns.get(i));
+        }
+        rowCount += other.rowCount;
+    }
+
+    public List<String> getHeaders() { return Collections.unmodifiableList(headers); }
+
+    public int getRowCount() { return rowCount; }
+
+    public int getColumnCount() { return columns.size(); }
+
+    public Column getColumn(int index) { return columns.get(index); }
+
+    public Column getColumn(String name) {
+        Integer index = columnIndex.get(name);
+        return index != null ? columns.get(index) : null;
+    }
+
+    public List<Map<String, Object>> asRowMaps() {
+        return new AbstractList<>() {
+            @Override
+            public Map<String, Object> get(int row) {
+                Map<String, Object> rowData = new LinkedHashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    rowData.put(headers.get(i), columns.get(i).get(row));
+                }
+                return rowData;
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+}
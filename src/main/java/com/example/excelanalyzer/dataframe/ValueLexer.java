@@ -0,0 +1,237 @@
+package com.example.excelanalyzer.dataframe;
+
+/**
+ * 单元格文本的词法分类：一次扫描判断整数/小数/日期/其他，并给出解析后的原始值。
+ * 数值的接受范围与 {@link Double#parseDouble} 一致，日期格式为 yyyy-MM-dd、MM/dd/yyyy、yyyy/MM/dd。
+ * 解析结果保存在实例字段中，不创建对象也不抛出异常；实例非线程安全，每个线程各自创建。
+ */
+public final class ValueLexer {
+
+    public enum Kind { INTEGER, DECIMAL, DATE, OTHER }
+
+    // 10^0 ~ 10^22 均可用double精确表示
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    private double value;
+    private int year;
+    private int month;
+    private int day;
+
+    public Kind lex(CharSequence text) {
+        int length = text.length();
+        if (length == 10 && lexDate(text)) {
+            return Kind.DATE;
+        }
+
+        // 与Double.parseDouble一致，忽略首尾的空白和控制字符
+        int start = 0;
+        int end = length;
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? Kind.OTHER : lexNumber(text, start, end);
+    }
+
+    public static boolean isNumber(Kind kind) {
+        return kind == Kind.INTEGER || kind == Kind.DECIMAL;
+    }
+
+    // 最近一次分类为INTEGER/DECIMAL时的数值
+    public double doubleValue() { return value; }
+
+    // 最近一次分类为DATE时的年月日
+    public int year() { return year; }
+    public int month() { return month; }
+    public int day() { return day; }
+
+    private Kind lexNumber(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        char c = text.charAt(i);
+        if (c == '+' || c == '-') {
+            negative = c == '-';
+            if (++i == end) {
+                return Kind.OTHER;
+            }
+            c = text.charAt(i);
+        }
+
+        if (c == 'N' || c == 'I') {
+            String word = c == 'N' ? "NaN" : "Infinity";
+            if (!regionMatches(text, i, end, word)) {
+                return Kind.OTHER;
+            }
+            value = c == 'N' ? Double.NaN : (negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+            return Kind.DECIMAL;
+        }
+        if (c == '0' && i + 1 < end && (text.charAt(i + 1) == 'x' || text.charAt(i + 1) == 'X')) {
+            return lexHexNumber(text, start, end);
+        }
+
+        long mantissa = 0;
+        int mantissaDigits = 0;
+        int scale = 0;
+        boolean truncated = false;
+        boolean sawDigit = false;
+        boolean integer = true;
+
+        for (; i < end; i++) {
+            c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            sawDigit = true;
+            if (mantissa == 0 && c == '0') {
+                continue;
+            }
+            if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                mantissaDigits++;
+            } else {
+                truncated = true;
+            }
+        }
+        if (i < end && text.charAt(i) == '.') {
+            integer = false;
+            for (i++; i < end; i++) {
+                c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                sawDigit = true;
+                if (mantissa == 0 && c == '0') {
+                    scale++;
+                    continue;
+                }
+                if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    mantissaDigits++;
+                    scale++;
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+        if (!sawDigit) {
+            return Kind.OTHER;
+        }
+
+        int exponent = 0;
+        if (i < end && ((c = text.charAt(i)) == 'e' || c == 'E')) {
+            integer = false;
+            boolean negativeExponent = false;
+            if (++i < end && ((c = text.charAt(i)) == '+' || c == '-')) {
+                negativeExponent = c == '-';
+                i++;
+            }
+            int exponentStart = i;
+            for (; i < end; i++) {
+                c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                // 超大指数只需保证落在快速路径范围之外
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (c - '0');
+                }
+            }
+            if (i == exponentStart) {
+                return Kind.OTHER;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (i < end && ((c = text.charAt(i)) == 'f' || c == 'F' || c == 'd' || c == 'D')) {
+            integer = false;
+            i++;
+        }
+        if (i != end) {
+            return Kind.OTHER;
+        }
+
+        int decimalExponent = exponent - scale;
+        double magnitude;
+        if (mantissa == 0 && !truncated) {
+            magnitude = 0.0;
+        } else if (!truncated && mantissa <= MAX_EXACT_MANTISSA
+                && decimalExponent >= -22 && decimalExponent <= 22) {
+            // 尾数和10的幂都能精确表示，一次乘除即得到正确舍入的结果
+            magnitude = decimalExponent >= 0
+                    ? mantissa * POWERS_OF_TEN[decimalExponent]
+                    : mantissa / POWERS_OF_TEN[-decimalExponent];
+        } else {
+            // 有效数字过多或指数过大，语法已校验，交给JDK完成精确舍入
+            magnitude = Math.abs(Double.parseDouble(text.subSequence(start, end).toString()));
+        }
+        value = negative ? -magnitude : magnitude;
+        return integer ? Kind.INTEGER : Kind.DECIMAL;
+    }
+
+    // 十六进制浮点数极少出现，直接交给JDK解析
+    private Kind lexHexNumber(CharSequence text, int start, int end) {
+        try {
+            value = Double.parseDouble(text.subSequence(start, end).toString());
+            return Kind.DECIMAL;
+        } catch (NumberFormatException e) {
+            return Kind.OTHER;
+        }
+    }
+
+    private boolean lexDate(CharSequence text) {
+        char separator = text.charAt(4);
+        if ((separator == '-' || separator == '/') && text.charAt(7) == separator
+                && isDigits(text, 0, 4) && isDigits(text, 5, 7) && isDigits(text, 8, 10)) {
+            year = toInt(text, 0, 4);
+            month = toInt(text, 5, 7);
+            day = toInt(text, 8, 10);
+            return true;
+        }
+        if (text.charAt(2) == '/' && text.charAt(5) == '/'
+                && isDigits(text, 0, 2) && isDigits(text, 3, 5) && isDigits(text, 6, 10)) {
+            month = toInt(text, 0, 2);
+            day = toInt(text, 3, 5);
+            year = toInt(text, 6, 10);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isDigits(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toInt(CharSequence text, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            result = result * 10 + (text.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 
 package com.example.excelanalyzer.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -18,12 +19,19 @@ public class AnalysisResult {
     @Column(nullable = false)
     private String analysisType; // STATISTICAL, CORRELATION, REGRESSION, CLUSTERING, etc.
     
+    @Column
+    private String sheetName; // 结果所属的工作表
+    
     @Column(nullable = false)
     private LocalDateTime createdTime;
     
     @Lob
-    @Column(columnDefinition = "CLOB")
-    private String resultData; // JSON格式的分析结果
+    @Column(columnDefinition = "BLOB")
+    @JsonIgnore
+    private byte[] resultBinary; // 二进制编码的分析结果(见AnalysisResultCodec)
+    
+    @Transient
+    private String resultData; // JSON格式的分析结果，查询时由resultBinary解码
     
     @Lob
     @Column(columnDefinition = "CLOB")
@@ -57,9 +65,15 @@ public class AnalysisResult {
     public String getAnalysisType() { return analysisType; }
     public void setAnalysisType(String analysisType) { this.analysisType = analysisType; }
     
+    public String getSheetName() { return sheetName; }
+    public void setSheetName(String sheetName) { this.sheetName = sheetName; }
+    
     public LocalDateTime getCreatedTime() { return createdTime; }
     public void setCreatedTime(LocalDateTime createdTime) { this.createdTime = createdTime; }
     
+    public byte[] getResultBinary() { return resultBinary; }
+    public void setResultBinary(byte[] resultBinary) { this.resultBinary = resultBinary; }
+    
     public String getResultData() { return resultData; }
     public void setResultData(String resultData) { this.resultData = resultData; }
     
@@ -40,9 +40,16 @@ public class DataSet {
     @Column(columnDefinition = "CLOB")
     private String headers;
     
+    @Lob
+    @Column(columnDefinition = "CLOB")
+    private String sheetNames; // 已分析的工作表，headers/totalColumns对应第一个工作表
+    
     @Column(nullable = false)
     private String status; // UPLOADED, ANALYZING, ANALYZED, ERROR
     
+    @Column(length = 2000)
+    private String errorMessage;
+    
     @OneToMany(mappedBy = "dataSet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<AnalysisResult> analysisResults;
     
@@ -92,9 +99,15 @@ public class DataSet {
     public String getHeaders() { return headers; }
     public void setHeaders(String headers) { this.headers = headers; }
     
+    public String getSheetNames() { return sheetNames; }
+    public void setSheetNames(String sheetNames) { this.sheetNames = sheetNames; }
+    
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    
     public List<AnalysisResult> getAnalysisResults() { return analysisResults; }
     public void setAnalysisResults(List<AnalysisResult> analysisResults) { this.analysisResults = analysisResults; }
 }
@@ -10,6 +10,8 @@ public class AdvancedColumnStatistics {
     private int totalCount;
     private int nullCount;
     private int uniqueCount;
+    private String uniqueCountMethod; // EXACT, HLL
+    private Double uniqueCountRelativeError; // HLL估计的相对标准误差
     
     // 数值统计
     private Double mean;
@@ -23,12 +25,16 @@ public class AdvancedColumnStatistics {
     private Double q3; // 第三四分位数
     private Double skewness; // 偏度
     private Double kurtosis; // 峰度
+    private String quantileMethod; // EXACT, KLL
+    private Double quantileRankError; // KLL草图的归一化秩误差
     
     // 文本统计
     private Integer averageLength;
     private Integer maxLength;
     private Integer minLength;
     private Map<String, Integer> frequencyDistribution;
+    private String frequencyMode; // FULL, TOP_K
+    private List<FrequencyEstimate> topFrequencies; // TOP_K模式下按次数降序的高频项
     
     // 数据质量
     private Double completenessRatio;
@@ -64,6 +70,12 @@ public class AdvancedColumnStatistics {
     public int getUniqueCount() { return uniqueCount; }
     public void setUniqueCount(int uniqueCount) { this.uniqueCount = uniqueCount; }
     
+    public String getUniqueCountMethod() { return uniqueCountMethod; }
+    public void setUniqueCountMethod(String uniqueCountMethod) { this.uniqueCountMethod = uniqueCountMethod; }
+    
+    public Double getUniqueCountRelativeError() { return uniqueCountRelativeError; }
+    public void setUniqueCountRelativeError(Double uniqueCountRelativeError) { this.uniqueCountRelativeError = uniqueCountRelativeError; }
+    
     public Double getMean() { return mean; }
     public void setMean(Double mean) { this.mean = mean; }
     
@@ -97,6 +109,12 @@ public class AdvancedColumnStatistics {
     public Double getKurtosis() { return kurtosis; }
     public void setKurtosis(Double kurtosis) { this.kurtosis = kurtosis; }
     
+    public String getQuantileMethod() { return quantileMethod; }
+    public void setQuantileMethod(String quantileMethod) { this.quantileMethod = quantileMethod; }
+    
+    public Double getQuantileRankError() { return quantileRankError; }
+    public void setQuantileRankError(Double quantileRankError) { this.quantileRankError = quantileRankError; }
+    
     public Integer getAverageLength() { return averageLength; }
     public void setAverageLength(Integer averageLength) { this.averageLength = averageLength; }
     
@@ -109,6 +127,12 @@ public class AdvancedColumnStatistics {
     public Map<String, Integer> getFrequencyDistribution() { return frequencyDistribution; }
     public void setFrequencyDistribution(Map<String, Integer> frequencyDistribution) { this.frequencyDistribution = frequencyDistribution; }
     
+    public String getFrequencyMode() { return frequencyMode; }
+    public void setFrequencyMode(String frequencyMode) { this.frequencyMode = frequencyMode; }
+    
+    public List<FrequencyEstimate> getTopFrequencies() { return topFrequencies; }
+    public void setTopFrequencies(List<FrequencyEstimate> topFrequencies) { this.topFrequencies = topFrequencies; }
+    
     public Double getCompletenessRatio() { return completenessRatio; }
     public void setCompletenessRatio(Double completenessRatio) { this.completenessRatio = completenessRatio; }
     
@@ -0,0 +1,27 @@
+package com.example.excelanalyzer.model;
+
+import java.util.List;
+
+public class ChunkedUploadRequest {
+    private String fileName;
+    private long fileSize;
+    private List<String> sheets; // 可选，要分析的工作表
+    
+    // Constructors
+    public ChunkedUploadRequest() {}
+    
+    public ChunkedUploadRequest(String fileName, long fileSize) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+    }
+    
+    // Getters and Setters
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+    
+    public List<String> getSheets() { return sheets; }
+    public void setSheets(List<String> sheets) { this.sheets = sheets; }
+}
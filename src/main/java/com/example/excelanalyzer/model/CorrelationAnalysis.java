@@ -9,6 +9,8 @@ public class CorrelationAnalysis {
     private String analysisMethod; // PEARSON, SPEARMAN, KENDALL
     private String interpretation;
     private Map<String, String> strongCorrelations;
+    private Map<String, Map<String, Double>> covarianceMatrix;
+    private Long sampleSize;
     
     // Constructors
     public CorrelationAnalysis() {}
@@ -32,4 +34,10 @@ public class CorrelationAnalysis {
     
     public Map<String, String> getStrongCorrelations() { return strongCorrelations; }
     public void setStrongCorrelations(Map<String, String> strongCorrelations) { this.strongCorrelations = strongCorrelations; }
+    
+    public Map<String, Map<String, Double>> getCovarianceMatrix() { return covarianceMatrix; }
+    public void setCovarianceMatrix(Map<String, Map<String, Double>> covarianceMatrix) { this.covarianceMatrix = covarianceMatrix; }
+    
+    public Long getSampleSize() { return sampleSize; }
+    public void setSampleSize(Long sampleSize) { this.sampleSize = sampleSize; }
 }
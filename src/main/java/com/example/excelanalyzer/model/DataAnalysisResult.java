@@ -8,6 +8,7 @@ public class DataAnalysisResult {
     private List<Map<String, Object>> data;
     private List<String> headers;
     private String fileName;
+    private String sheetName; // 工作表名称
     private Map<String, ColumnStatistics> statistics; // 保留原有的简单统计
     private Map<String, AdvancedColumnStatistics> advancedStatistics; // 新增高级统计
     private CorrelationAnalysis correlationAnalysis; // 相关性分析结果
@@ -18,6 +19,7 @@ public class DataAnalysisResult {
     private String dataQualityScore; // 数据质量评分
     private List<String> dataQualityIssues; // 数据质量问题
     private Map<String, Object> summaryStatistics; // 汇总统计
+    private Map<String, DataAnalysisResult> sheetResults; // 多工作表分析时各工作表的结果
     
     // Constructors
     public DataAnalysisResult() {
@@ -43,6 +45,9 @@ public class DataAnalysisResult {
     public String getFileName() { return fileName; }
     public void setFileName(String fileName) { this.fileName = fileName; }
 
+    public String getSheetName() { return sheetName; }
+    public void setSheetName(String sheetName) { this.sheetName = sheetName; }
+
     public Map<String, ColumnStatistics> getStatistics() { return statistics; }
     public void setStatistics(Map<String, ColumnStatistics> statistics) { this.statistics = statistics; }
     
@@ -72,4 +77,7 @@ public class DataAnalysisResult {
     
     public Map<String, Object> getSummaryStatistics() { return summaryStatistics; }
     public void setSummaryStatistics(Map<String, Object> summaryStatistics) { this.summaryStatistics = summaryStatistics; }
+    
+    public Map<String, DataAnalysisResult> getSheetResults() { return sheetResults; }
+    public void setSheetResults(Map<String, DataAnalysisResult> sheetResults) { this.sheetResults = sheetResults; }
 }
@@ -0,0 +1,29 @@
+package com.example.excelanalyzer.model;
+
+/**
+ * 高频项的出现次数估计：count为真实次数的上界，真实次数在[count - maxError, count]之间。
+ */
+public class FrequencyEstimate {
+    private String value;
+    private long count;
+    private long maxError;
+    
+    // Constructors
+    public FrequencyEstimate() {}
+    
+    public FrequencyEstimate(String value, long count, long maxError) {
+        this.value = value;
+        this.count = count;
+        this.maxError = maxError;
+    }
+    
+    // Getters and Setters
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+    
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    
+    public long getMaxError() { return maxError; }
+    public void setMaxError(long maxError) { this.maxError = maxError; }
+}
@@ -14,7 +14,9 @@ public class RegressionAnalysis {
     private Double fStatistic;
     private Double pValue;
     private String equation;
-    private List<Double> residuals;
+    private ResidualSummary residualSummary;
+    private String residualsId;
+    private Long sampleSize;
     private Map<String, Double> variableSignificance;
     private String modelSummary;
     private List<String> assumptions;
@@ -56,8 +58,14 @@ public class RegressionAnalysis {
     public String getEquation() { return equation; }
     public void setEquation(String equation) { this.equation = equation; }
     
-    public List<Double> getResiduals() { return residuals; }
-    public void setResiduals(List<Double> residuals) { this.residuals = residuals; }
+    public ResidualSummary getResidualSummary() { return residualSummary; }
+    public void setResidualSummary(ResidualSummary residualSummary) { this.residualSummary = residualSummary; }
+    
+    public String getResidualsId() { return residualsId; }
+    public void setResidualsId(String residualsId) { this.residualsId = residualsId; }
+    
+    public Long getSampleSize() { return sampleSize; }
+    public void setSampleSize(Long sampleSize) { this.sampleSize = sampleSize; }
     
     public Map<String, Double> getVariableSignificance() { return variableSignificance; }
     public void setVariableSignificance(Map<String, Double> variableSignificance) { this.variableSignificance = variableSignificance; }
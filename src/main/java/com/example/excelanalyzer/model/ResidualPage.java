@@ -0,0 +1,39 @@
+package com.example.excelanalyzer.model;
+
+/**
+ * 按行顺序分页读取的回归残差，rows[i]为residuals[i]所在行的下标(从0开始，不含表头)。
+ */
+public class ResidualPage {
+    private String residualsId;
+    private long offset;
+    private long total;
+    private int[] rows;
+    private double[] residuals;
+    
+    // Constructors
+    public ResidualPage() {}
+    
+    public ResidualPage(String residualsId, long offset, long total, int[] rows, double[] residuals) {
+        this.residualsId = residualsId;
+        this.offset = offset;
+        this.total = total;
+        this.rows = rows;
+        this.residuals = residuals;
+    }
+    
+    // Getters and Setters
+    public String getResidualsId() { return residualsId; }
+    public void setResidualsId(String residualsId) { this.residualsId = residualsId; }
+    
+    public long getOffset() { return offset; }
+    public void setOffset(long offset) { this.offset = offset; }
+    
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    
+    public int[] getRows() { return rows; }
+    public void setRows(int[] rows) { this.rows = rows; }
+    
+    public double[] getResiduals() { return residuals; }
+    public void setResiduals(double[] residuals) { this.residuals = residuals; }
+}
@@ -0,0 +1,29 @@
+package com.example.excelanalyzer.model;
+
+/**
+ * 单个残差：row为该行在工作表数据中的下标(从0开始，不含表头)，standardizedResidual为残差除以残差标准误。
+ */
+public class ResidualPoint {
+    private int row;
+    private double residual;
+    private double standardizedResidual;
+    
+    // Constructors
+    public ResidualPoint() {}
+    
+    public ResidualPoint(int row, double residual, double standardizedResidual) {
+        this.row = row;
+        this.residual = residual;
+        this.standardizedResidual = standardizedResidual;
+    }
+    
+    // Getters and Setters
+    public int getRow() { return row; }
+    public void setRow(int row) { this.row = row; }
+    
+    public double getResidual() { return residual; }
+    public void setResidual(double residual) { this.residual = residual; }
+    
+    public double getStandardizedResidual() { return standardizedResidual; }
+    public void setStandardizedResidual(double standardizedResidual) { this.standardizedResidual = standardizedResidual; }
+}
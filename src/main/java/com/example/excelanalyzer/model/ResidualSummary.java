@@ -0,0 +1,54 @@
+package com.example.excelanalyzer.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回归残差的摘要：基本统计量、分位数、等宽直方图和绝对值最大的若干行。完整残差按residualsId分页读取。
+ */
+public class ResidualSummary {
+    private long count;
+    private Double mean;
+    private Double standardDeviation;
+    private Double min;
+    private Double max;
+    private Map<String, Double> quantiles; // p1, p5, p25, p50, p75, p95, p99
+    private String quantileMethod; // EXACT, KLL
+    private List<Double> histogramEdges;
+    private List<Long> histogramCounts;
+    private List<ResidualPoint> largestResiduals;
+    
+    // Constructors
+    public ResidualSummary() {}
+    
+    // Getters and Setters
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+    
+    public Double getStandardDeviation() { return standardDeviation; }
+    public void setStandardDeviation(Double standardDeviation) { this.standardDeviation = standardDeviation; }
+    
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+    
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+    
+    public Map<String, Double> getQuantiles() { return quantiles; }
+    public void setQuantiles(Map<String, Double> quantiles) { this.quantiles = quantiles; }
+    
+    public String getQuantileMethod() { return quantileMethod; }
+    public void setQuantileMethod(String quantileMethod) { this.quantileMethod = quantileMethod; }
+    
+    public List<Double> getHistogramEdges() { return histogramEdges; }
+    public void setHistogramEdges(List<Double> histogramEdges) { this.histogramEdges = histogramEdges; }
+    
+    public List<Long> getHistogramCounts() { return histogramCounts; }
+    public void setHistogramCounts(List<Long> histogramCounts) { this.histogramCounts = histogramCounts; }
+    
+    public List<ResidualPoint> getLargestResiduals() { return largestResiduals; }
+    public void setLargestResiduals(List<ResidualPoint> largestResiduals) { this.largestResiduals = largestResiduals; }
+}
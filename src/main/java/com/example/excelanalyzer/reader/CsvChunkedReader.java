@@ -0,0 +1,215 @@
+package com.example.excelanalyzer.reader;
+
+import com.example.excelanalyzer.dataframe.ValueLexer;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * CSV/TSV分块并行读取：文件以内存映射方式打开，按记录边界切分为若干分块，
+ * 各分块由commons-csv独立解析为列式数据，最后按分块顺序合并。
+ */
+public class CsvChunkedReader {
+
+    // 扫描记录边界时每次映射的窗口大小
+    private static final int SCAN_WINDOW = 64 * 1024 * 1024;
+
+    private final Path path;
+    private final CSVFormat format;
+    private final long chunkBytes;
+
+    public CsvChunkedReader(Path path, char delimiter, long chunkBytes) {
+        this.path = path;
+        this.format = CSVFormat.DEFAULT.builder().setDelimiter(delimiter).build();
+        this.chunkBytes = chunkBytes;
+    }
+
+    public SheetDataCollector read(ExecutorService executor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = hasBom(channel) ? 3 : 0;
+
+            // 记录边界：只跟踪引号状态，引号内的换行不作为分块边界
+            List<Long> boundaries = findChunkBoundaries(channel, start, size);
+            long headerEnd = boundaries.get(1);
+            List<String> headers = new ArrayList<>();
+            try (CSVParser parser = CSVParser.parse(readerFor(channel, start, headerEnd), format)) {
+                for (CSVRecord record : parser) {
+                    record.forEach(headers::add);
+                    break;
+                }
+            }
+
+            List<Future<SheetDataCollector>> futures = new ArrayList<>();
+            for (int i = 1; i < boundaries.size() - 1; i++) {
+                long chunkStart = boundaries.get(i);
+                long chunkEnd = boundaries.get(i + 1);
+                futures.add(executor.submit(() -> parseChunk(channel, chunkStart, chunkEnd, headers)));
+            }
+
+            SheetDataCollector result = new SheetDataCollector(headers);
+            for (Future<SheetDataCollector> future : futures) {
+                result.getDataFrame().appendFrame(awaitChunk(future).getDataFrame());
+            }
+            return result;
+        }
+    }
+
+    private SheetDataCollector parseChunk(FileChannel channel, long start, long end, List<String> headers)
+            throws IOException {
+        SheetDataCollector collector = new SheetDataCollector(headers);
+        ValueLexer lexer = new ValueLexer();
+        try (CSVParser parser = CSVParser.parse(readerFor(channel, start, end), format)) {
+            for (CSVRecord record : parser) {
+                collector.startRow(1);
+                for (int i = 0; i < record.size(); i++) {
+                    collector.cell(i, convert(record.get(i), lexer));
+                }
+                collector.endRow(1);
+            }
+        }
+        return collector;
+    }
+
+    // 第一个边界之后为表头记录，其后每隔约chunkBytes取下一个记录结束位置
+    private List<Long> findChunkBoundaries(FileChannel channel, long start, long size) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(start);
+        boolean inQuotes = false;
+        long nextTarget = start;
+        for (long windowStart = start; windowStart < size; windowStart += SCAN_WINDOW) {
+            int windowSize = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            for (int i = 0; i < windowSize; i++) {
+                byte b = window.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes && windowStart + i >= nextTarget) {
+                    long boundary = windowStart + i + 1;
+                    boundaries.add(boundary);
+                    nextTarget = boundary + chunkBytes;
+                }
+            }
+        }
+        if (boundaries.get(boundaries.size() - 1) < size) {
+            boundaries.add(size);
+        }
+        if (boundaries.size() < 2) {
+            boundaries.add(size);
+        }
+        return boundaries;
+    }
+
+    private boolean hasBom(FileChannel channel) throws IOException {
+        if (channel.size() < 3) {
+            return false;
+        }
+        ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        return (head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF;
+    }
+
+    private BufferedReader readerFor(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        return new BufferedReader(new InputStreamReader(new ByteBufferInputStream(buffer), StandardCharsets.UTF_8));
+    }
+
+    // 与Excel导入CSV的行为一致，数字字段按数值存储，其余保留为文本
+    static Object convert(String field, ValueLexer lexer) {
+        if (field.isEmpty()) {
+            return "";
+        }
+        if (isPlainNumber(field) && ValueLexer.isNumber(lexer.lex(field))) {
+            return lexer.doubleValue();
+        }
+        return field;
+    }
+
+    // 只接受 [+-]数字[.数字][e[+-]数字] 形式；Java字面量的f/d后缀、NaN、Infinity、十六进制和首尾空白都保留为文本
+    static boolean isPlainNumber(String field) {
+        int i = 0;
+        int length = field.length();
+        if (field.charAt(0) == '+' || field.charAt(0) == '-') {
+            i++;
+        }
+        int digits = 0;
+        for (; i < length && isAsciiDigit(field.charAt(i)); i++) {
+            digits++;
+        }
+        if (i < length && field.charAt(i) == '.') {
+            for (i++; i < length && isAsciiDigit(field.charAt(i)); i++) {
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (field.charAt(i) == 'e' || field.charAt(i) == 'E')) {
+            if (++i < length && (field.charAt(i) == '+' || field.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < length && isAsciiDigit(field.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static SheetDataCollector awaitChunk(Future<SheetDataCollector> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("CSV解析被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("CSV分块解析失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.excelanalyzer.reader;
+
+import com.example.excelanalyzer.dataframe.DataFrame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 将行事件汇总为列式数据：第0行为表头，其余行按表头列位置取值，空行跳过。
+ */
+public class SheetDataCollector implements SheetRowHandler {
+
+    private final List<String> headers = new ArrayList<>();
+    private DataFrame dataFrame;
+
+    private boolean inHeaderRow;
+    private Object[] rowValues;
+
+    public SheetDataCollector() {}
+
+    // 表头已知时(例如CSV分块)，所有行都按数据行处理
+    public SheetDataCollector(List<String> headers) {
+        this.headers.addAll(headers);
+        this.dataFrame = new DataFrame(headers);
+        this.rowValues = new Object[headers.size()];
+    }
+
+    // 已是列式数据(例如Arrow导入)，不再经过行事件
+    public SheetDataCollector(DataFrame dataFrame) {
+        this.headers.addAll(dataFrame.getHeaders());
+        this.dataFrame = dataFrame;
+        this.rowValues = new Object[headers.size()];
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+        inHeaderRow = rowNum == 0;
+        if (!inHeaderRow) {
+            if (dataFrame == null) {
+                dataFrame = new DataFrame(headers);
+                rowValues = new Object[headers.size()];
+            }
+            // 缺失的单元格按空字符串处理
+            Arrays.fill(rowValues, "");
+        }
+    }
+
+    @Override
+    public void cell(int columnIndex, Object value) {
+        if (inHeaderRow) {
+            headers.add(value != null ? value.toString() : "");
+        } else if (columnIndex < rowValues.length) {
+            rowValues[columnIndex] = value;
+        }
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+        if (inHeaderRow) {
+            inHeaderRow = false;
+            return;
+        }
+
+        boolean hasData = false;
+        for (Object value : rowValues) {
+            if (hasContent(value)) {
+                hasData = true;
+                break;
+            }
+        }
+
+        if (hasData) {
+            dataFrame.appendRow(rowValues);
+        }
+    }
+
+    public List<String> getHeaders() { return headers; }
+
+    public DataFrame getDataFrame() {
+        if (dataFrame == null) {
+            dataFrame = new DataFrame(headers);
+        }
+        return dataFrame;
+    }
+
+    // 等价于 !value.toString().trim().isEmpty()，避免为数值单元格生成字符串
+    private static boolean hasContent(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (!(value instanceof String)) {
+            return true;
+        }
+        String text = (String) value;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.excelanalyzer.reader;
+
+/**
+ * 逐行接收工作表数据的回调接口，DOM读取与流式读取共用同一套表头/数据行逻辑。
+ */
+public interface SheetRowHandler {
+
+    void startRow(int rowNum);
+
+    // columnIndex 为从0开始的列号，仅对实际存在的单元格回调
+    void cell(int columnIndex, Object value);
+
+    void endRow(int rowNum);
+}
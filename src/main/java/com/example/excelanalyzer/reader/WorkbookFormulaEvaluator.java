@@ -0,0 +1,94 @@
+package com.example.excelanalyzer.reader;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.WorkbookDependentFormula;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * 公式全量重算模式的工作表读取。只引用本表单元格的工作表各自创建求值器，可在多个线程中并行求值；
+ * 含跨表引用或名称引用的工作表共用同一个求值器，串行求值并共享其中间结果缓存。
+ */
+public class WorkbookFormulaEvaluator {
+
+    private final Workbook workbook;
+    private final FormulaEvaluator sharedEvaluator;
+
+    public WorkbookFormulaEvaluator(Workbook workbook) {
+        this.workbook = workbook;
+        this.sharedEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+    }
+
+    public void readSheet(int sheetIndex, SheetRowHandler handler) {
+        Sheet sheet = workbook.getSheetAt(sheetIndex);
+        if (isSelfContained(sheet, sheetIndex)) {
+            WorkbookSheetReader.read(sheet, handler, workbook.getCreationHelper().createFormulaEvaluator());
+        } else {
+            synchronized (sharedEvaluator) {
+                WorkbookSheetReader.read(sheet, handler, sharedEvaluator);
+            }
+        }
+    }
+
+    private boolean isSelfContained(Sheet sheet, int sheetIndex) {
+        // 没有定义名称时，公式文本中不含工作表限定符即只引用本表
+        boolean hasNames = workbook.getNumberOfNames() > 0;
+        FormulaParsingWorkbook parsingWorkbook = null;
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                if (cell.getCellType() != CellType.FORMULA) {
+                    continue;
+                }
+                String formula = cell.getCellFormula();
+                if (formula.indexOf('!') >= 0) {
+                    return false;
+                }
+                if (hasNames) {
+                    if (parsingWorkbook == null) {
+                        parsingWorkbook = createParsingWorkbook();
+                    }
+                    if (referencesOtherCells(formula, parsingWorkbook, sheetIndex)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean referencesOtherCells(String formula, FormulaParsingWorkbook parsingWorkbook, int sheetIndex) {
+        try {
+            for (Ptg ptg : FormulaParser.parse(formula, parsingWorkbook, FormulaType.CELL, sheetIndex)) {
+                if (ptg instanceof WorkbookDependentFormula || ptg instanceof Pxg) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (RuntimeException e) {
+            // 无法解析的公式按存在外部依赖处理
+            return true;
+        }
+    }
+
+    private FormulaParsingWorkbook createParsingWorkbook() {
+        if (workbook instanceof XSSFWorkbook) {
+            return XSSFEvaluationWorkbook.create((XSSFWorkbook) workbook);
+        }
+        if (workbook instanceof HSSFWorkbook) {
+            return HSSFEvaluationWorkbook.create((HSSFWorkbook) workbook);
+        }
+        throw new IllegalArgumentException("不支持的工作簿类型: " + workbook.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.excelanalyzer.reader;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Date1904Support;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * 基于POI用户模型(DOM)的工作表读取，适用于小文件。
+ */
+public final class WorkbookSheetReader {
+
+    private WorkbookSheetReader() {}
+
+    public static void read(Sheet sheet, SheetRowHandler handler) {
+        read(sheet, handler, null);
+    }
+
+    // evaluator不为空时重新计算公式，否则读取公式的缓存结果
+    public static void read(Sheet sheet, SheetRowHandler handler, FormulaEvaluator evaluator) {
+        for (Row row : sheet) {
+            int rowNum = row.getRowNum();
+            handler.startRow(rowNum);
+            for (Cell cell : row) {
+                handler.cell(cell.getColumnIndex(), getCellValue(cell, evaluator));
+            }
+            handler.endRow(rowNum);
+        }
+    }
+
+    public static Object getCellValue(Cell cell) {
+        return getCellValue(cell, null);
+    }
+
+    public static Object getCellValue(Cell cell, FormulaEvaluator evaluator) {
+        if (cell == null) {
+            return "";
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getDateCellValue().toString();
+                } else {
+                    return cell.getNumericCellValue();
+                }
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            case FORMULA:
+                return getFormulaValue(cell, evaluator);
+            default:
+                return "";
+        }
+    }
+
+    private static Object getFormulaValue(Cell cell, FormulaEvaluator evaluator) {
+        if (evaluator != null) {
+            try {
+                CellValue value = evaluator.evaluate(cell);
+                if (value == null) {
+                    return "";
+                }
+                switch (value.getCellType()) {
+                    case NUMERIC:
+                        return numericFormulaValue(cell, value.getNumberValue());
+                    case STRING:
+                        return value.getStringValue();
+                    case BOOLEAN:
+                        return value.getBooleanValue();
+                    default:
+                        return "";
+                }
+            } catch (RuntimeException e) {
+                // 不支持的函数、外部引用等无法求值时退回到缓存结果
+            }
+        }
+
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                return numericFormulaValue(cell, cell.getNumericCellValue());
+            case STRING:
+                return cell.getStringCellValue();
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            default:
+                // 错误值
+                return "";
+        }
+    }
+
+    private static Object numericFormulaValue(Cell cell, double value) {
+        CellStyle style = cell.getCellStyle();
+        if (style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())
+                && DateUtil.isValidExcelDate(value)) {
+            return DateUtil.getJavaDate(value, isDate1904(cell.getSheet().getWorkbook())).toString();
+        }
+        return value;
+    }
+
+    private static boolean isDate1904(Workbook workbook) {
+        if (workbook instanceof Date1904Support) {
+            return ((Date1904Support) workbook).isDate1904();
+        }
+        if (workbook instanceof HSSFWorkbook) {
+            return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+        return false;
+    }
+}
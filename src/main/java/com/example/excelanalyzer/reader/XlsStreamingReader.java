@@ -0,0 +1,271 @@
+package com.example.excelanalyzer.reader;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于HSSFEventFactory记录流的XLS读取，不构建HSSFCell对象，读取到最后一个目标工作表结束即停止。
+ * 单元格取值规则与 {@link WorkbookSheetReader#getCellValue} 保持一致。
+ */
+public class XlsStreamingReader implements Closeable {
+
+    private final POIFSFileSystem fileSystem;
+
+    // 只读方式打开，记录块通过FileChannel按需读取
+    public XlsStreamingReader(File file) throws IOException {
+        this.fileSystem = new POIFSFileSystem(file, true);
+    }
+
+    public List<String> getSheetNames() throws IOException {
+        // 只解析全局记录，遇到第一个工作表即终止
+        List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(new AbortableHSSFListener() {
+            private boolean inGlobals;
+
+            @Override
+            public short abortableProcessRecord(Record record) {
+                if (record.getSid() == BOFRecord.sid) {
+                    if (inGlobals) {
+                        return 1;
+                    }
+                    inGlobals = true;
+                } else if (record.getSid() == BoundSheetRecord.sid) {
+                    boundSheets.add((BoundSheetRecord) record);
+                }
+                return 0;
+            }
+        });
+        processEvents(request);
+
+        // 工作表按其在记录流中的位置编号
+        List<String> names = new ArrayList<>();
+        for (BoundSheetRecord boundSheet : BoundSheetRecord.orderByBofPosition(boundSheets)) {
+            names.add(boundSheet.getSheetname());
+        }
+        return names;
+    }
+
+    public void readSheet(int sheetIndex, SheetRowHandler handler) throws IOException {
+        readSheets(Map.of(sheetIndex, handler));
+    }
+
+    // BIFF8记录流只能顺序读取，一次遍历把多个工作表分发给各自的处理器
+    public void readSheets(Map<Integer, ? extends SheetRowHandler> handlers) throws IOException {
+        SheetRecordListener listener = new SheetRecordListener(handlers);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        processEvents(request);
+        for (Integer sheetIndex : handlers.keySet()) {
+            if (sheetIndex > listener.sheetCounter) {
+                throw new IllegalArgumentException("工作表不存在: " + sheetIndex);
+            }
+        }
+    }
+
+    private void processEvents(HSSFRequest request) throws IOException {
+        try {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem);
+        } catch (HSSFUserException e) {
+            throw new IOException("解析XLS工作表失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileSystem.close();
+    }
+
+    private static class SheetRecordListener extends AbortableHSSFListener {
+
+        private final Map<Integer, ? extends SheetRowHandler> handlers;
+        private final int lastSheet;
+        private final Map<Integer, String> customFormats = new HashMap<>();
+        private final List<Integer> xfFormatIndexes = new ArrayList<>();
+        private final Map<Integer, Boolean> dateFormatCache = new HashMap<>();
+
+        private SSTRecord sst;
+        private boolean date1904;
+        private int depth;
+        private int sheetCounter = -1;
+        private SheetRowHandler handler;
+        private int currentRow = -1;
+        private int pendingStringColumn = -1;
+
+        SheetRecordListener(Map<Integer, ? extends SheetRowHandler> handlers) {
+            this.handlers = handlers;
+            this.lastSheet = handlers.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    BOFRecord bof = (BOFRecord) record;
+                    if (depth++ == 0 && bof.getType() != BOFRecord.TYPE_WORKBOOK) {
+                        sheetCounter++;
+                        handler = handlers.get(sheetCounter);
+                        currentRow = -1;
+                    }
+                    break;
+                case EOFRecord.sid:
+                    if (--depth == 0 && handler != null) {
+                        if (currentRow >= 0) {
+                            handler.endRow(currentRow);
+                        }
+                        handler = null;
+                        if (sheetCounter >= lastSheet) {
+                            // 所需工作表均已读取完毕，终止后续记录解析
+                            return 1;
+                        }
+                    }
+                    break;
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    break;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    break;
+                case FormatRecord.sid:
+                    FormatRecord format = (FormatRecord) record;
+                    customFormats.put(format.getIndexCode(), format.getFormatString());
+                    break;
+                case ExtendedFormatRecord.sid:
+                    xfFormatIndexes.add(((ExtendedFormatRecord) record).getFormatIndex() & 0xFFFF);
+                    break;
+                default:
+                    if (handler != null && depth == 1) {
+                        processSheetRecord(record);
+                    }
+                    break;
+            }
+            return 0;
+        }
+
+        private void processSheetRecord(Record record) {
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    emit(label, sst.getString(label.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord oldLabel = (LabelRecord) record;
+                    emit(oldLabel, oldLabel.getValue());
+                    break;
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    emit(number, numericValue(number, number.getValue()));
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    emit(boolErr, boolErr.isBoolean() ? (Object) boolErr.getBooleanValue() : "");
+                    break;
+                case BlankRecord.sid:
+                    emit((BlankRecord) record, "");
+                    break;
+                case MulBlankRecord.sid:
+                    // 相邻的多个带格式空单元格合并为一条记录，需逐列展开，否则表头会错位
+                    MulBlankRecord blanks = (MulBlankRecord) record;
+                    startRowIfNeeded(blanks.getRow());
+                    for (int column = blanks.getFirstColumn(); column <= blanks.getLastColumn(); column++) {
+                        handler.cell(column, "");
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    processFormula((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    if (pendingStringColumn >= 0) {
+                        handler.cell(pendingStringColumn, ((StringRecord) record).getString());
+                        pendingStringColumn = -1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void processFormula(FormulaRecord formula) {
+            // 公式单元格读取缓存结果
+            CellType cachedType = formula.getCachedResultTypeEnum();
+            if (cachedType == CellType.NUMERIC) {
+                emit(formula, numericValue(formula, formula.getValue()));
+            } else if (cachedType == CellType.BOOLEAN) {
+                emit(formula, formula.getCachedBooleanValue());
+            } else if (cachedType == CellType.STRING) {
+                // 字符串结果在紧随其后的StringRecord中
+                startRowIfNeeded(formula.getRow());
+                pendingStringColumn = formula.getColumn();
+            } else {
+                emit(formula, "");
+            }
+        }
+
+        private Object numericValue(CellValueRecordInterface cell, double value) {
+            if (isDateFormat(cell.getXFIndex()) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getJavaDate(value, date1904).toString();
+            }
+            return value;
+        }
+
+        private boolean isDateFormat(int xfIndex) {
+            return dateFormatCache.computeIfAbsent(xfIndex, idx -> {
+                if (idx >= xfFormatIndexes.size()) {
+                    return false;
+                }
+                int formatIndex = xfFormatIndexes.get(idx);
+                String formatString = customFormats.get(formatIndex);
+                if (formatString == null) {
+                    formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+                }
+                return DateUtil.isADateFormat(formatIndex, formatString);
+            });
+        }
+
+        private void emit(CellValueRecordInterface cell, Object value) {
+            startRowIfNeeded(cell.getRow());
+            handler.cell(cell.getColumn(), value);
+        }
+
+        private void startRowIfNeeded(int row) {
+            if (row != currentRow) {
+                if (currentRow >= 0) {
+                    handler.endRow(currentRow);
+                }
+                currentRow = row;
+                handler.startRow(row);
+            }
+        }
+    }
+}
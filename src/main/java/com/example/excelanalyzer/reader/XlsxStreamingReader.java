@@ -0,0 +1,267 @@
+package com.example.excelanalyzer.reader;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于XSSFReader + SAX的XLSX流式读取，逐行产出单元格值，内存占用与行数无关。
+ * 单元格取值规则与 {@link WorkbookSheetReader#getCellValue} 保持一致。
+ */
+public class XlsxStreamingReader implements Closeable {
+
+    private final OPCPackage opcPackage;
+    private final XSSFReader xssfReader;
+    private final SharedStrings sharedStrings;
+    private final StylesTable stylesTable;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<String> sheetRelationIds = new ArrayList<>();
+    private boolean date1904;
+
+    // 以只读方式按文件打开，ZIP条目随机访问，不把整个文件读入内存
+    public XlsxStreamingReader(File file) throws IOException {
+        try {
+            this.opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("无法打开XLSX文件: " + e.getMessage(), e);
+        }
+        try {
+            this.xssfReader = new XSSFReader(opcPackage);
+            this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+            this.stylesTable = xssfReader.getStylesTable();
+            readWorkbookProperties();
+        } catch (OpenXML4JException | SAXException e) {
+            opcPackage.revert();
+            throw new IOException("无法读取XLSX文件结构: " + e.getMessage(), e);
+        }
+    }
+
+    public List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    // 各工作表对应独立的XML部件，可在多个线程中并行读取
+    public void readSheet(int sheetIndex, SheetRowHandler handler) throws IOException {
+        if (sheetIndex < 0 || sheetIndex >= sheetRelationIds.size()) {
+            throw new IllegalArgumentException("工作表不存在: " + sheetIndex);
+        }
+        try {
+            InputStream sheetStream;
+            synchronized (this) {
+                sheetStream = xssfReader.getSheet(sheetRelationIds.get(sheetIndex));
+            }
+            try (InputStream in = sheetStream) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetContentHandler(handler));
+                parser.parse(new InputSource(in));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("解析XLSX工作表失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // 只读打开，放弃任何修改
+        opcPackage.revert();
+    }
+
+    // 读取workbook.xml中的工作表列表和1904日期系统标记
+    private void readWorkbookProperties() throws IOException, OpenXML4JException, SAXException {
+        try (InputStream workbookData = xssfReader.getWorkbookData()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    } else if ("sheet".equals(localName)) {
+                        sheetNames.add(attributes.getValue("name"));
+                        for (int i = 0; i < attributes.getLength(); i++) {
+                            if ("id".equals(attributes.getLocalName(i)) && !attributes.getURI(i).isEmpty()) {
+                                sheetRelationIds.add(attributes.getValue(i));
+                            }
+                        }
+                    }
+                }
+            });
+            parser.parse(new InputSource(workbookData));
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private boolean isDateStyle(int styleIndex, Map<Integer, Boolean> cache) {
+        return cache.computeIfAbsent(styleIndex, idx -> {
+            if (stylesTable == null || idx >= stylesTable.getNumCellStyles()) {
+                return false;
+            }
+            XSSFCellStyle style = stylesTable.getStyleAt(idx);
+            return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        });
+    }
+
+    static int columnIndex(String cellRef) {
+        int column = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char ch = cellRef.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            column = column * 26 + (ch - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private class SheetContentHandler extends DefaultHandler {
+
+        private final SheetRowHandler handler;
+        private final Map<Integer, Boolean> dateStyleCache = new HashMap<>();
+        private final StringBuilder value = new StringBuilder();
+
+        private int rowNum = -1;
+        private int nextColumn;
+        private int column;
+        private String cellType;
+        private int styleIndex;
+        private boolean hasValue;
+        private boolean hasFormula;
+        private boolean inValue;
+        private boolean inInlineString;
+
+        SheetContentHandler(SheetRowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    nextColumn = 0;
+                    handler.startRow(rowNum);
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : nextColumn;
+                    nextColumn = column + 1;
+                    cellType = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s != null ? Integer.parseInt(s) : 0;
+                    value.setLength(0);
+                    hasValue = false;
+                    hasFormula = false;
+                    break;
+                case "v":
+                    inValue = true;
+                    hasValue = true;
+                    break;
+                case "f":
+                    hasFormula = true;
+                    break;
+                case "is":
+                    inInlineString = true;
+                    hasValue = true;
+                    break;
+                case "t":
+                    if (inInlineString) {
+                        inValue = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    break;
+                case "c":
+                    handler.cell(column, cellValue());
+                    break;
+                case "row":
+                    handler.endRow(rowNum);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private Object cellValue() {
+            // 公式单元格读取<v>中的缓存结果，结果类型由t属性给出(str/b/e或数值)
+            String text = value.toString();
+            if (!hasValue) {
+                if (!hasFormula) {
+                    return "";
+                }
+                // 从未计算过的公式没有<v>，与用户模型一致，数值和布尔结果按0处理
+                if (cellType == null || "n".equals(cellType) || "b".equals(cellType)) {
+                    text = "0";
+                }
+            }
+
+            if (cellType == null || "n".equals(cellType)) {
+                if (text.isEmpty()) {
+                    return "";
+                }
+                double number = Double.parseDouble(text);
+                if (isDateStyle(styleIndex, dateStyleCache) && DateUtil.isValidExcelDate(number)) {
+                    return DateUtil.getJavaDate(number, date1904).toString();
+                }
+                return number;
+            }
+
+            switch (cellType) {
+                case "s":
+                    return sharedStrings.getItemAt(Integer.parseInt(text)).getString();
+                case "inlineStr":
+                case "str":
+                    return text;
+                case "b":
+                    return "1".equals(text) || "true".equalsIgnoreCase(text);
+                default:
+                    // 错误值等其他类型
+                    return "";
+            }
+        }
+    }
+}
@@ -22,11 +22,21 @@ public interface AnalysisResultRepository extends JpaRepository<AnalysisResult,
     
     List<AnalysisResult> findByDataSetAndAnalysisType(DataSet dataSet, String analysisType);
     
+    List<AnalysisResult> findByDataSetAndAnalysisTypeAndSheetName(DataSet dataSet, String analysisType, String sheetName);
+    
     List<AnalysisResult> findByCreatedTimeBetween(LocalDateTime startTime, LocalDateTime endTime);
     
     @Query("SELECT ar FROM AnalysisResult ar WHERE ar.dataSet.id = :datasetId ORDER BY ar.createdTime DESC")
     List<AnalysisResult> findByDataSetIdOrderByCreatedTimeDesc(@Param("datasetId") Long datasetId);
     
+    // 只查询二进制结果，不加载实体，用于按字段读取部分结果
+    @Query("SELECT ar.resultBinary FROM AnalysisResult ar WHERE ar.dataSet.id = :datasetId AND ar.analysisType = :analysisType ORDER BY ar.id")
+    List<byte[]> findResultBinary(@Param("datasetId") Long datasetId, @Param("analysisType") String analysisType);
+    
+    @Query("SELECT ar.resultBinary FROM AnalysisResult ar WHERE ar.dataSet.id = :datasetId AND ar.analysisType = :analysisType AND ar.sheetName = :sheetName ORDER BY ar.id")
+    List<byte[]> findResultBinary(@Param("datasetId") Long datasetId, @Param("analysisType") String analysisType,
+                                  @Param("sheetName") String sheetName);
+    
     @Query("SELECT COUNT(ar) FROM AnalysisResult ar WHERE ar.analysisType = :analysisType AND ar.status = 'SUCCESS'")
     Long countSuccessfulAnalysesByType(@Param("analysisType") String analysisType);
 }
@@ -1,200 +1,623 @@
 
 package com.example.excelanalyzer.service;
 
+import com.example.excelanalyzer.dataframe.Column;
+import com.example.excelanalyzer.dataframe.ColumnRanks;
+import com.example.excelanalyzer.dataframe.ValueLexer;
 import com.example.excelanalyzer.model.AdvancedColumnStatistics;
 import com.example.excelanalyzer.model.CorrelationAnalysis;
+import com.example.excelanalyzer.model.FrequencyEstimate;
 import com.example.excelanalyzer.model.RegressionAnalysis;
+import com.example.excelanalyzer.model.ResidualPoint;
+import com.example.excelanalyzer.model.ResidualSummary;
+import com.example.excelanalyzer.stats.ArrayKernels;
+import com.example.excelanalyzer.stats.CoMomentAccumulator;
+import com.example.excelanalyzer.stats.CoMomentTask;
+import com.example.excelanalyzer.stats.ColumnProfile;
+import com.example.excelanalyzer.stats.CorrelationMatrix;
+import com.example.excelanalyzer.stats.DistinctCounter;
+import com.example.excelanalyzer.stats.KendallsTau;
+import com.example.excelanalyzer.stats.KllQuantileSketch;
+import com.example.excelanalyzer.stats.LinearRegressionFit;
+import com.example.excelanalyzer.stats.ProfileOptions;
+import com.example.excelanalyzer.stats.SpaceSavingSummary;
+import jakarta.annotation.PostConstruct;
 import org.apache.commons.math3.stat.StatUtils;
-import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
-import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
-import org.apache.commons.math3.stat.descriptive.moment.Kurtosis;
-import org.apache.commons.math3.stat.descriptive.moment.Skewness;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
 
 @Service
 public class AdvancedStatisticalAnalysisService {
     
     private static final Logger logger = LoggerFactory.getLogger(AdvancedStatisticalAnalysisService.class);
     
+    private static final Pattern PHONE_PATTERN = Pattern.compile("\\d{3}-\\d{3}-\\d{4}");
+    
+    // 高频项摘要的计数器个数为输出项数的倍数，多保留的计数器用于降低排名误差
+    private static final int FREQUENCY_COUNTERS_PER_ITEM = 4;
+    
+    // 草图模式下估计众数的Space-Saving计数器个数
+    private static final int MODE_SUMMARY_CAPACITY = 4096;
+    
+    // 按次数降序，次数相同时按值排序
+    private static final Comparator<FrequencyEstimate> FREQUENCY_ORDER =
+            Comparator.comparingLong(FrequencyEstimate::getCount).reversed()
+                    .thenComparing(FrequencyEstimate::getValue);
+    
+    // 残差摘要输出的百分位数、直方图分箱数和绝对值最大的行数
+    private static final double[] RESIDUAL_PERCENTILES = {1, 5, 25, 50, 75, 95, 99};
+    private static final int RESIDUAL_HISTOGRAM_BINS = 20;
+    private static final int LARGEST_RESIDUALS = 10;
+    
+    // 行数不超过该值的列精确计算分位数，更大的列使用KLL草图估计
+    @Value("${analyzer.stats.exact-quantile-max-rows:1000000}")
+    private int exactQuantileMaxRows = 1000000;
+    
+    // KLL草图参数k，越大越精确，内存约为3k个double
+    @Value("${analyzer.stats.quantile-sketch-k:200}")
+    private int quantileSketchK = 200;
+    
+    // 数值的不同值个数超过该值后改用HyperLogLog估计
+    @Value("${analyzer.stats.exact-distinct-max:100000}")
+    private int exactDistinctMax = 100000;
+    
+    // HyperLogLog精度，寄存器个数为2^precision，相对误差约1.04/sqrt(2^precision)
+    @Value("${analyzer.stats.hll-precision:14}")
+    private int hllPrecision = 14;
+    
+    // 文本列不同值超过该数量时只输出次数最多的这些项(TOP_K)，0表示总是输出完整频率分布
+    @Value("${analyzer.stats.frequency-top-k:1000}")
+    private int frequencyTopK = 1000;
+    
+    // 是否使用jdk.incubator.vector的SIMD数组运算，需要JVM以 --add-modules jdk.incubator.vector 启动
+    @Value("${analyzer.stats.vector-kernels:false}")
+    private boolean vectorKernels;
+    
+    private ArrayKernels arrayKernels = ArrayKernels.SCALAR;
+    
+    @Autowired
+    private RegressionResidualStore residualStore;
+    
+    // 相关系数矩阵的瓦片与列统计共用同一个ForkJoin线程池
+    @Autowired
+    @Qualifier("columnProfilingPool")
+    private ForkJoinPool columnProfilingPool;
+    
+    @PostConstruct
+    public void init() {
+        arrayKernels = ArrayKernels.select(vectorKernels);
+        if (vectorKernels && arrayKernels == ArrayKernels.SCALAR) {
+            logger.warn("未加载 {} 模块或构建时未启用vector profile，统计计算使用标量实现", ArrayKernels.VECTOR_MODULE);
+        }
+        logger.info("统计计算数组运算实现: {}", arrayKernels.getName());
+    }
+    
     public AdvancedColumnStatistics calculateAdvancedStatistics(List<Object> values, String columnName) {
-        AdvancedColumnStatistics stats = new AdvancedColumnStatistics(columnName, detectDataType(values));
+        return calculateAdvancedStatistics(Column.of(columnName, values));
+    }
+    
+    public AdvancedColumnStatistics calculateAdvancedStatistics(Column column) {
+        return calculateAdvancedStatistics(column, ColumnProfile.scan(column, profileOptions(column)));
+    }
+    
+    // 按列的大小选择精确计算或草图估计
+    public ProfileOptions profileOptions(Column column) {
+        int sketchK = column.size() > exactQuantileMaxRows ? quantileSketchK : 0;
+        return new ProfileOptions(sketchK, exactDistinctMax, hllPrecision, arrayKernels);
+    }
+    
+    // 所有统计量都由同一次扫描得到的列概要计算，不再重复遍历列数据
+    public AdvancedColumnStatistics calculateAdvancedStatistics(Column column, ColumnProfile profile) {
+        AdvancedColumnStatistics stats = new AdvancedColumnStatistics(column.getName(), detectDataType(column, profile));
         
         // 基础统计
-        stats.setTotalCount(values.size());
-        stats.setNullCount((int) values.stream().filter(Objects::isNull).count());
-        stats.setUniqueCount((int) values.stream().filter(Objects::nonNull).distinct().count());
+        stats.setTotalCount(profile.getRowCount());
+        stats.setNullCount(profile.getNullCount());
+        countDistinct(column, profile, stats);
         stats.setCompletenessRatio((double) (stats.getTotalCount() - stats.getNullCount()) / stats.getTotalCount());
         
-        List<Object> nonNullValues = values.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        
         if (stats.getDataType().equals("NUMERIC")) {
-            calculateNumericStatistics(nonNullValues, stats);
+            calculateNumericStatistics(column, profile, stats);
         } else if (stats.getDataType().equals("TEXT")) {
-            calculateTextStatistics(nonNullValues, stats);
+            calculateTextStatistics(column, profile, stats);
         }
         
         // 数据质量分析
-        analyzeDataQuality(nonNullValues, stats);
+        analyzeDataQuality(stats);
         
         return stats;
     }
     
-    private void calculateNumericStatistics(List<Object> values, AdvancedColumnStatistics stats) {
-        double[] numericValues = values.stream()
-                .filter(v -> isNumeric(v.toString()))
-                .mapToDouble(v -> Double.parseDouble(v.toString()))
-                .toArray();
-        
-        if (numericValues.length == 0) return;
-        
-        DescriptiveStatistics descriptiveStats = new DescriptiveStatistics(numericValues);
+    private void calculateNumericStatistics(Column column, ColumnProfile profile, AdvancedColumnStatistics stats) {
+        if (profile.getNumericCount() == 0) return;
         
         // 基础统计量
-        stats.setMean(descriptiveStats.getMean());
-        stats.setMedian(descriptiveStats.getPercentile(50));
-        stats.setStandardDeviation(descriptiveStats.getStandardDeviation());
-        stats.setVariance(descriptiveStats.getVariance());
-        stats.setMin(descriptiveStats.getMin());
-        stats.setMax(descriptiveStats.getMax());
-        
-        // 四分位数
-        stats.setQ1(descriptiveStats.getPercentile(25));
-        stats.setQ3(descriptiveStats.getPercentile(75));
+        stats.setMean(profile.getMean());
+        stats.setStandardDeviation(profile.getStandardDeviation());
+        stats.setVariance(profile.getVariance());
+        stats.setMin(profile.getMin());
+        stats.setMax(profile.getMax());
+        
+        // 四分位数：草图模式由KLL草图估计，否则排序一次后精确计算
+        double[] quartiles;
+        KllQuantileSketch sketch = profile.getQuantileSketch();
+        if (sketch != null) {
+            quartiles = sketch.percentiles(25, 50, 75);
+            stats.setQuantileMethod("KLL");
+            stats.setQuantileRankError(sketch.getNormalizedRankError());
+        } else {
+            double[] sorted = profile.getSortedValues();
+            int count = sorted.length;
+            while (count > 0 && Double.isNaN(sorted[count - 1])) {
+                count--;
+            }
+            quartiles = new double[] {
+                    percentile(sorted, count, 25), percentile(sorted, count, 50), percentile(sorted, count, 75)};
+            stats.setQuantileMethod("EXACT");
+        }
+        double q1 = quartiles[0];
+        double q3 = quartiles[2];
+        stats.setMedian(quartiles[1]);
+        stats.setQ1(q1);
+        stats.setQ3(q3);
         
         // 偏度和峰度
-        Skewness skewness = new Skewness();
-        Kurtosis kurtosis = new Kurtosis();
-        stats.setSkewness(skewness.evaluate(numericValues));
-        stats.setKurtosis(kurtosis.evaluate(numericValues));
+        stats.setSkewness(profile.getSkewness());
+        stats.setKurtosis(profile.getKurtosis());
         
         // 众数计算
-        stats.setMode(calculateMode(numericValues));
+        stats.setMode(sketch != null ? calculateMode(column) : calculateMode(profile.getSortedValues()));
         
         // 异常值检测
-        detectOutliers(numericValues, stats);
+        detectOutliers(column, q1, q3, stats);
         
         logger.debug("计算数值列 {} 的高级统计量完成", stats.getColumnName());
     }
     
-    private void calculateTextStatistics(List<Object> values, AdvancedColumnStatistics stats) {
-        List<String> stringValues = values.stream()
-                .map(Object::toString)
-                .filter(s -> !s.trim().isEmpty())
-                .collect(Collectors.toList());
+    private void calculateTextStatistics(Column column, ColumnProfile profile, AdvancedColumnStatistics stats) {
+        // 非空白字典项的字符串形式，空白项为null
+        List<Object> dictionary = column.getDictionary();
+        int[] dictionaryCounts = profile.getDictionaryCounts();
+        String[] texts = new String[dictionaryCounts.length];
+        int textCount = 0;
+        for (int code = 0; code < dictionaryCounts.length; code++) {
+            String value = dictionary.get(code).toString();
+            if (!value.trim().isEmpty()) {
+                texts[code] = value;
+                textCount++;
+            }
+        }
+        
+        // 数值单元格按其字符串形式计入频率，由固定容量的高频项摘要计数
+        SpaceSavingSummary numbers = null;
+        if (frequencyTopK > 0) {
+            SpaceSavingSummary summary = new SpaceSavingSummary(frequencyTopK * FREQUENCY_COUNTERS_PER_ITEM);
+            column.forEachNumberCell(v -> summary.add(Double.doubleToLongBits(v)));
+            numbers = summary;
+        }
+        
+        // 不同值较少时输出完整的频率分布，否则只输出次数最多的frequencyTopK项
+        if (numbers == null || (numbers.isExact() && textCount + numbers.size() <= frequencyTopK)) {
+            calculateFullFrequencies(profile, texts, dictionaryCounts, numbers, stats);
+        } else {
+            calculateTopFrequencies(column, texts, dictionaryCounts, numbers, stats);
+        }
+        
+        logger.debug("计算文本列 {} 的统计量完成", stats.getColumnName());
+    }
+    
+    private void calculateFullFrequencies(ColumnProfile profile, String[] texts, int[] dictionaryCounts,
+                                          SpaceSavingSummary numbers, AdvancedColumnStatistics stats) {
+        // 频率分布：字典项按出现次数累加，数值单元格按其字符串形式计入
+        Map<String, Integer> frequencyMap = new HashMap<>();
+        for (int code = 0; code < texts.length; code++) {
+            if (texts[code] != null) {
+                frequencyMap.merge(texts[code], dictionaryCounts[code], Integer::sum);
+            }
+        }
+        if (numbers != null) {
+            numbers.forEach((key, count, error) ->
+                    frequencyMap.merge(Double.toString(Double.longBitsToDouble(key)), count, Integer::sum));
+        } else {
+            // 有序数组中相同的数值相邻，每个不同的数值只转换一次字符串
+            double[] sorted = profile.getSortedNumberCells();
+            for (int i = 0; i < sorted.length; ) {
+                int end = endOfRun(sorted, i);
+                frequencyMap.merge(Double.toString(sorted[i]), end - i, Integer::sum);
+                i = end;
+            }
+        }
         
-        if (stringValues.isEmpty()) return;
+        if (frequencyMap.isEmpty()) return;
         
         // 长度统计
-        int[] lengths = stringValues.stream().mapToInt(String::length).toArray();
-        stats.setAverageLength((int) Arrays.stream(lengths).average().orElse(0));
-        stats.setMaxLength(Arrays.stream(lengths).max().orElse(0));
-        stats.setMinLength(Arrays.stream(lengths).min().orElse(0));
-        
-        // 频率分布
-        Map<String, Integer> frequencyMap = stringValues.stream()
-                .collect(Collectors.groupingBy(
-                        s -> s,
-                        Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)
-                ));
+        LengthStatistics lengths = new LengthStatistics();
+        frequencyMap.forEach((value, count) -> lengths.add(value.length(), count));
+        lengths.applyTo(stats);
+        
         stats.setFrequencyDistribution(frequencyMap);
+        stats.setFrequencyMode("FULL");
         
         // 模式检测
-        detectTextPatterns(stringValues, stats);
-        
-        logger.debug("计算文本列 {} 的统计量完成", stats.getColumnName());
+        detectTextPatterns(frequencyMap.keySet(), stats);
     }
     
-    public CorrelationAnalysis performCorrelationAnalysis(Map<String, List<Double>> numericData, String method) {
-        CorrelationAnalysis analysis = new CorrelationAnalysis(method);
+    private void calculateTopFrequencies(Column column, String[] texts, int[] dictionaryCounts,
+                                         SpaceSavingSummary numbers, AdvancedColumnStatistics stats) {
+        LengthStatistics lengths = new LengthStatistics();
+        
+        // 数值单元格的候选高频项；摘要精确时长度也按不同值统计，否则逐个单元格统计
+        Map<String, FrequencyEstimate> numberCandidates = new HashMap<>();
+        numbers.forEach((key, count, error) -> {
+            String value = Double.toString(Double.longBitsToDouble(key));
+            numberCandidates.put(value, new FrequencyEstimate(value, count, error));
+            if (numbers.isExact()) {
+                lengths.add(value.length(), count);
+            }
+        });
+        if (!numbers.isExact()) {
+            column.forEachNumberCell(v -> lengths.add(Double.toString(v).length(), 1));
+        }
         
-        List<String> columns = new ArrayList<>(numericData.keySet());
-        int size = columns.size();
+        // 字典项的次数是精确的，与字符串相同的数值候选项合并后参与排名
+        PriorityQueue<FrequencyEstimate> top = new PriorityQueue<>(FREQUENCY_ORDER.reversed());
+        List<String> textValues = new ArrayList<>();
+        for (int code = 0; code < texts.length; code++) {
+            String value = texts[code];
+            if (value == null) {
+                continue;
+            }
+            int count = dictionaryCounts[code];
+            lengths.add(value.length(), count);
+            textValues.add(value);
+            FrequencyEstimate number = numberCandidates.remove(value);
+            if (number != null) {
+                offerTopFrequency(top, value, count + number.getCount(), number.getMaxError());
+            } else {
+                offerTopFrequency(top, value, count, 0);
+            }
+        }
+        for (FrequencyEstimate number : numberCandidates.values()) {
+            offerTopFrequency(top, number.getValue(), number.getCount(), number.getMaxError());
+        }
         
-        // 创建相关系数矩阵
-        Map<String, Map<String, Double>> correlationMatrix = new HashMap<>();
+        List<FrequencyEstimate> topFrequencies = new ArrayList<>(top);
+        topFrequencies.sort(FREQUENCY_ORDER);
+        lengths.applyTo(stats);
+        stats.setTopFrequencies(topFrequencies);
+        stats.setFrequencyMode("TOP_K");
         
-        for (int i = 0; i < size; i++) {
-            String col1 = columns.get(i);
-            Map<String, Double> row = new HashMap<>();
-            
-            for (int j = 0; j < size; j++) {
-                String col2 = columns.get(j);
-                double correlation = calculateCorrelation(
-                        numericData.get(col1), 
-                        numericData.get(col2), 
-                        method
-                );
-                row.put(col2, correlation);
+        // 模式检测：数值的字符串形式不会匹配邮箱/电话/日期格式，只需检查文本
+        detectTextPatterns(textValues, stats);
+    }
+    
+    // 只在能进入前frequencyTopK名时才创建对象
+    private void offerTopFrequency(PriorityQueue<FrequencyEstimate> top, String value, long count, long maxError) {
+        if (top.size() >= frequencyTopK) {
+            FrequencyEstimate last = top.peek();
+            if (count < last.getCount() || (count == last.getCount() && value.compareTo(last.getValue()) >= 0)) {
+                return;
+            }
+            top.poll();
+        }
+        top.add(new FrequencyEstimate(value, count, maxError));
+    }
+    
+    // 文本长度统计：按次数加权的平均长度及最大/最小长度
+    private static class LengthStatistics {
+        private long totalLength;
+        private long totalCount;
+        private int maxLength = Integer.MIN_VALUE;
+        private int minLength = Integer.MAX_VALUE;
+        
+        void add(int length, long count) {
+            totalLength += length * count;
+            totalCount += count;
+            maxLength = Math.max(maxLength, length);
+            minLength = Math.min(minLength, length);
+        }
+        
+        void applyTo(AdvancedColumnStatistics stats) {
+            stats.setAverageLength((int) ((double) totalLength / totalCount));
+            stats.setMaxLength(maxLength);
+            stats.setMinLength(minLength);
+        }
+    }
+    
+    public CorrelationAnalysis performCorrelationAnalysis(Map<String, List<Double>> numericData, String method) {
+        Map<String, double[]> arrays = new HashMap<>();
+        numericData.forEach((column, values) ->
+                arrays.put(column, values.stream().mapToDouble(Double::doubleValue).toArray()));
+        return performColumnCorrelationAnalysis(arrays, method);
+    }
+    
+    public CorrelationAnalysis performColumnCorrelationAnalysis(Map<String, double[]> numericData, String method) {
+        List<String> names = new ArrayList<>(numericData.keySet());
+        double[][] values = new double[names.size()][];
+        List<ColumnRanks> ranks = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = numericData.get(names.get(i));
+            if (isRankCorrelation(method)) {
+                ranks.add(ColumnRanks.of(values[i]));
+            }
+        }
+        return buildCorrelationAnalysis(names, values, ranks, method);
+    }
+    
+    // 数据集的列：Pearson按行区间并行累加协同矩，不复制整列；秩相关与Pearson一样只使用所有列都是数值的行，
+    // 各列都没有空缺时行天然对齐，直接使用列上缓存的秩，同一列不重复排序。有效行不足2行时返回null
+    public CorrelationAnalysis performColumnCorrelationAnalysis(List<Column> columns, String method) {
+        List<String> names = new ArrayList<>();
+        for (Column column : columns) {
+            names.add(column.getName());
+        }
+        if (!isRankCorrelation(method)) {
+            return performCorrelationAnalysis(names, columnProfilingPool.invoke(new CoMomentTask(columns, arrayKernels)));
+        }
+        List<ColumnRanks> ranks = new ArrayList<>();
+        if (columns.stream().allMatch(column -> column.numericCellCount() == column.size())) {
+            for (Column column : columns) {
+                ranks.add(column.numericRanks());
+            }
+        } else {
+            for (double[] values : CoMomentTask.completeRows(columns)) {
+                ranks.add(ColumnRanks.of(values));
             }
-            correlationMatrix.put(col1, row);
         }
+        int sampleSize = ranks.isEmpty() ? 0 : ranks.get(0).size();
+        if (sampleSize < 2) {
+            logger.warn("所有列都是数值的行不足2行({})，跳过 {} 相关性分析", sampleSize, method);
+            return null;
+        }
+        CorrelationAnalysis analysis = buildCorrelationAnalysis(names, null, ranks, method);
+        analysis.setSampleSize((long) sampleSize);
+        return analysis;
+    }
+    
+    // 由累加好的协同矩(可来自流式读取或多个分区的合并)得到Pearson相关系数和协方差矩阵；有效行不足2行时返回null
+    public CorrelationAnalysis performCorrelationAnalysis(List<String> columns, CoMomentAccumulator moments) {
+        if (moments.getCount() < 2) {
+            logger.warn("所有列都是数值的行不足2行({})，跳过 PEARSON 相关性分析", moments.getCount());
+            return null;
+        }
+        CorrelationAnalysis analysis = new CorrelationAnalysis("PEARSON");
+        analysis.setCovarianceMatrix(toMatrixMap(columns, moments.covarianceMatrix()));
+        analysis.setSampleSize(moments.getCount());
+        return completeCorrelationAnalysis(analysis, columns, moments.correlationMatrix());
+    }
+    
+    private static boolean isRankCorrelation(String method) {
+        return "SPEARMAN".equalsIgnoreCase(method) || "KENDALL".equalsIgnoreCase(method);
+    }
+    
+    private CorrelationAnalysis buildCorrelationAnalysis(List<String> columns, double[][] values,
+                                                         List<ColumnRanks> ranks, String method) {
+        int size = columns.size();
         
+        // 创建相关系数矩阵：只计算上三角，对称填充。Spearman即平均秩的Pearson相关系数
+        double[][] correlations;
+        if ("SPEARMAN".equalsIgnoreCase(method)) {
+            double[][] averageRanks = new double[size][];
+            for (int i = 0; i < size; i++) {
+                averageRanks[i] = ranks.get(i).getAverageRanks();
+            }
+            correlations = CorrelationMatrix.pearson(averageRanks, columnProfilingPool, arrayKernels);
+        } else if ("KENDALL".equalsIgnoreCase(method)) {
+            correlations = KendallsTau.matrix(ranks, columnProfilingPool);
+        } else {
+            correlations = CorrelationMatrix.pearson(values, columnProfilingPool, arrayKernels);
+        }
+        return completeCorrelationAnalysis(new CorrelationAnalysis(method), columns, correlations);
+    }
+    
+    private CorrelationAnalysis completeCorrelationAnalysis(CorrelationAnalysis analysis, List<String> columns,
+                                                            double[][] correlations) {
+        Map<String, Map<String, Double>> correlationMatrix = toMatrixMap(columns, correlations);
         analysis.setCorrelationMatrix(correlationMatrix);
         analysis.setStrongCorrelations(findStrongCorrelations(correlationMatrix));
         analysis.setInterpretation(generateCorrelationInterpretation(correlationMatrix));
         
-        logger.info("完成 {} 相关性分析，涉及 {} 个变量", method, size);
+        logger.info("完成 {} 相关性分析，涉及 {} 个变量", analysis.getAnalysisMethod(), columns.size());
         return analysis;
     }
     
+    private static Map<String, Map<String, Double>> toMatrixMap(List<String> columns, double[][] matrix) {
+        Map<String, Map<String, Double>> result = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Map<String, Double> row = new HashMap<>();
+            for (int j = 0; j < columns.size(); j++) {
+                row.put(columns.get(j), matrix[i][j]);
+            }
+            result.put(columns.get(i), row);
+        }
+        return result;
+    }
+    
     public RegressionAnalysis performLinearRegression(List<Double> dependentVar, 
                                                      Map<String, List<Double>> independentVars, 
                                                      String dependentVarName) {
-        RegressionAnalysis analysis = new RegressionAnalysis("LINEAR", dependentVarName);
-        
-        // 简单线性回归（单变量）
-        if (independentVars.size() == 1) {
-            String independentVarName = independentVars.keySet().iterator().next();
-            List<Double> independentVar = independentVars.get(independentVarName);
-            
-            SimpleRegression regression = new SimpleRegression();
-            
-            for (int i = 0; i < dependentVar.size(); i++) {
-                regression.addData(independentVar.get(i), dependentVar.get(i));
+        List<Column> independents = new ArrayList<>();
+        for (Map.Entry<String, List<Double>> entry : independentVars.entrySet()) {
+            if (entry.getValue().size() != dependentVar.size()) {
+                throw new IllegalArgumentException("自变量 " + entry.getKey() + " 的数据个数与因变量不一致");
             }
-            
-            // 设置结果
-            Map<String, Double> coefficients = new HashMap<>();
-            coefficients.put("intercept", regression.getIntercept());
-            coefficients.put(independentVarName, regression.getSlope());
-            
-            analysis.setCoefficients(coefficients);
-            analysis.setRSquared(regression.getRSquare());
-            analysis.setEquation(String.format("y = %.4f + %.4f * %s", 
-                    regression.getIntercept(), regression.getSlope(), independentVarName));
-            
-            // 计算残差
-            List<Double> residuals = new ArrayList<>();
-            for (int i = 0; i < dependentVar.size(); i++) {
-                double predicted = regression.predict(independentVar.get(i));
-                residuals.add(dependentVar.get(i) - predicted);
+            independents.add(Column.of(entry.getKey(), entry.getValue()));
+        }
+        return performLinearRegression(Column.of(dependentVarName, dependentVar), independents);
+    }
+    
+    /**
+     * 多元线性回归(带截距)：一遍并行扫描累加自变量和因变量的协同矩，由正规方程求解系数，
+     * 内存与行数无关。只使用所有变量都是数值的行。
+     */
+    public RegressionAnalysis performLinearRegression(Column dependent, List<Column> independents) {
+        RegressionAnalysis analysis = new RegressionAnalysis("LINEAR", dependent.getName());
+        if (independents.isEmpty()) {
+            throw new IllegalArgumentException("回归分析至少需要一个自变量");
+        }
+        
+        List<Column> columns = new ArrayList<>(independents);
+        columns.add(dependent);
+        LinearRegressionFit fit = LinearRegressionFit.fit(
+                columnProfilingPool.invoke(new CoMomentTask(columns, arrayKernels)));
+        
+        // 设置结果
+        List<String> names = new ArrayList<>();
+        Map<String, Double> coefficients = new LinkedHashMap<>();
+        Map<String, Double> significance = new LinkedHashMap<>();
+        coefficients.put("intercept", fit.getIntercept());
+        significance.put("intercept", fit.getInterceptPValue());
+        StringBuilder equation = new StringBuilder(String.format("y = %.4f", fit.getIntercept()));
+        for (int i = 0; i < independents.size(); i++) {
+            String name = independents.get(i).getName();
+            names.add(name);
+            coefficients.put(name, fit.getSlope(i));
+            significance.put(name, fit.getSlopePValue(i));
+            equation.append(String.format(" + %.4f * %s", fit.getSlope(i), name));
+        }
+        
+        analysis.setIndependentVariables(names);
+        analysis.setCoefficients(coefficients);
+        analysis.setVariableSignificance(significance);
+        analysis.setRSquared(fit.getRSquared());
+        analysis.setAdjustedRSquared(fit.getAdjustedRSquared());
+        analysis.setFStatistic(fit.getFStatistic());
+        analysis.setPValue(fit.getFPValue());
+        analysis.setSampleSize(fit.getSampleSize());
+        analysis.setEquation(equation.toString());
+        
+        // 完整残差写入列式存储，结果中只保留摘要
+        try (RegressionResidualStore.ResidualWriter writer = residualStore.create()) {
+            analysis.setResidualsId(writer.getResidualsId());
+            analysis.setResidualSummary(summarizeResiduals(fit, columns, writer));
+        } catch (IOException | UncheckedIOException e) {
+            if (analysis.getResidualsId() != null) {
+                residualStore.delete(analysis.getResidualsId());
             }
-            analysis.setResiduals(residuals);
-            
-            analysis.setIndependentVariables(List.of(independentVarName));
-            analysis.setModelSummary(generateRegressionSummary(analysis));
+            throw new IllegalStateException("保存回归残差失败: " + e.getMessage(), e);
         }
+        analysis.setModelSummary(generateRegressionSummary(analysis));
         
-        logger.info("完成线性回归分析，因变量: {}", dependentVarName);
+        logger.info("完成线性回归分析，因变量: {}，自变量 {} 个，有效样本 {} 行",
+                dependent.getName(), independents.size(), fit.getSampleSize());
         return analysis;
     }
     
-    private String detectDataType(List<Object> values) {
-        if (values == null || values.isEmpty()) return "UNKNOWN";
-        
-        long numericCount = values.stream()
-                .filter(Objects::nonNull)
-                .filter(v -> isNumeric(v.toString()))
-                .count();
+    /**
+     * 一遍计算残差并写入writer，同时统计均值、标准差、极值、分位数和绝对值最大的行；
+     * 行数超过exactQuantileMaxRows时分位数由KLL草图估计，直方图需要极值，在第二遍中统计。
+     */
+    private ResidualSummary summarizeResiduals(LinearRegressionFit fit, List<Column> columns,
+                                               RegressionResidualStore.ResidualWriter writer) {
+        long n = fit.getSampleSize();
+        double standardError = fit.getResidualStandardError();
+        double[] exact = n <= exactQuantileMaxRows ? new double[(int) n] : null;
+        KllQuantileSketch sketch = exact == null ? new KllQuantileSketch(quantileSketchK) : null;
+        PriorityQueue<ResidualPoint> largest = new PriorityQueue<>(
+                Comparator.comparingDouble((ResidualPoint p) -> Math.abs(p.getResidual())));
+        double[] moments = new double[3]; // 个数、均值、离差平方和(Welford)
+        double[] range = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        
+        fit.forEachResidual(columns, (row, residual) -> {
+            writer.write(row, residual);
+            long count = (long) ++moments[0];
+            double delta = residual - moments[1];
+            moments[1] += delta / count;
+            moments[2] += delta * (residual - moments[1]);
+            range[0] = Math.min(range[0], residual);
+            range[1] = Math.max(range[1], residual);
+            if (exact != null) {
+                exact[(int) count - 1] = residual;
+            } else {
+                sketch.update(residual);
+            }
+            // 只有能进入前LARGEST_RESIDUALS名时才创建对象
+            if (largest.size() < LARGEST_RESIDUALS || Math.abs(residual) > Math.abs(largest.peek().getResidual())) {
+                largest.add(new ResidualPoint(row, residual, standardError > 0 ? residual / standardError : 0.0));
+                if (largest.size() > LARGEST_RESIDUALS) {
+                    largest.poll();
+                }
+            }
+        });
+        
+        ResidualSummary summary = new ResidualSummary();
+        summary.setCount(n);
+        summary.setMean(moments[1]);
+        summary.setStandardDeviation(n > 1 ? Math.sqrt(moments[2] / (n - 1)) : 0.0);
+        summary.setMin(range[0]);
+        summary.setMax(range[1]);
+        
+        // 分位数
+        double[] percentiles;
+        if (exact != null) {
+            Arrays.sort(exact);
+            percentiles = new double[RESIDUAL_PERCENTILES.length];
+            for (int i = 0; i < percentiles.length; i++) {
+                percentiles[i] = percentile(exact, exact.length, RESIDUAL_PERCENTILES[i]);
+            }
+            summary.setQuantileMethod("EXACT");
+        } else {
+            percentiles = sketch.percentiles(RESIDUAL_PERCENTILES);
+            summary.setQuantileMethod("KLL");
+        }
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        for (int i = 0; i < percentiles.length; i++) {
+            quantiles.put("p" + (int) RESIDUAL_PERCENTILES[i], percentiles[i]);
+        }
+        summary.setQuantiles(quantiles);
+        
+        // 等宽直方图，所有残差相同时只有一个分箱
+        int bins = range[1] > range[0] ? RESIDUAL_HISTOGRAM_BINS : 1;
+        double width = (range[1] - range[0]) / bins;
+        long[] counts = new long[bins];
+        if (exact != null) {
+            for (double residual : exact) {
+                counts[histogramBin(residual, range[0], width, bins)]++;
+            }
+        } else {
+            fit.forEachResidual(columns, (row, residual) -> counts[histogramBin(residual, range[0], width, bins)]++);
+        }
+        List<Double> edges = new ArrayList<>(bins + 1);
+        for (int i = 0; i < bins; i++) {
+            edges.add(range[0] + i * width);
+        }
+        edges.add(range[1]);
+        List<Long> histogram = new ArrayList<>(bins);
+        for (long count : counts) {
+            histogram.add(count);
+        }
+        summary.setHistogramEdges(edges);
+        summary.setHistogramCounts(histogram);
+        
+        List<ResidualPoint> largestResiduals = new ArrayList<>(largest);
+        largestResiduals.sort(Comparator.comparingDouble((ResidualPoint p) -> Math.abs(p.getResidual())).reversed()
+                .thenComparingInt(ResidualPoint::getRow));
+        summary.setLargestResiduals(largestResiduals);
+        return summary;
+    }
+    
+    private static int histogramBin(double value, double min, double width, int bins) {
+        if (!(width > 0)) {
+            return 0;
+        }
+        return Math.min(bins - 1, (int) ((value - min) / width));
+    }
+    
+    private String detectDataType(Column column, ColumnProfile profile) {
+        if (profile.getRowCount() == 0) return "UNKNOWN";
         
-        long totalNonNull = values.stream().filter(Objects::nonNull).count();
+        long numericCount = profile.getNumericCount();
+        long totalNonNull = profile.getRowCount() - profile.getNullCount();
         
         if (totalNonNull == 0) return "UNKNOWN";
         
@@ -203,11 +626,14 @@ public class AdvancedStatisticalAnalysisService {
             return "NUMERIC";
         }
         
-        // 检查是否是日期
-        long dateCount = values.stream()
-                .filter(Objects::nonNull)
-                .filter(v -> isDate(v.toString()))
-                .count();
+        // 检查是否是日期，按字典项统计，每个不同的文本只判断一次
+        int[] dictionaryCounts = profile.getDictionaryCounts();
+        long dateCount = 0;
+        for (int code = 0; code < dictionaryCounts.length; code++) {
+            if (column.isDateEntry(code)) {
+                dateCount += dictionaryCounts[code];
+            }
+        }
         
         if ((double) dateCount / totalNonNull > 0.7) {
             return "DATE";
@@ -216,55 +642,124 @@ public class AdvancedStatisticalAnalysisService {
         return "TEXT";
     }
     
-    private boolean isNumeric(String str) {
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    private void countDistinct(Column column, ColumnProfile profile, AdvancedColumnStatistics stats) {
+        // 数值按位模式去重(与Double.equals一致)，基数较大时为HyperLogLog估计值；其余值由字典保证唯一
+        DistinctCounter numbers = profile.getDistinctNumberCells();
+        long distinct = numbers.count() + column.getDictionary().size();
+        stats.setUniqueCount((int) Math.min(distinct, Integer.MAX_VALUE));
+        if (numbers.isEstimated()) {
+            stats.setUniqueCountMethod("HLL");
+            stats.setUniqueCountRelativeError(numbers.getRelativeError() * numbers.count() / distinct);
+        } else {
+            stats.setUniqueCountMethod("EXACT");
         }
     }
     
-    private boolean isDate(String str) {
-        // 简单的日期检测逻辑
-        return str.matches("\\d{4}-\\d{2}-\\d{2}") || 
-               str.matches("\\d{2}/\\d{2}/\\d{4}") ||
-               str.matches("\\d{4}/\\d{2}/\\d{2}");
+    // 有序数组中从start开始、位模式相同的一段数值的结束位置
+    private static int endOfRun(double[] sorted, int start) {
+        long bits = Double.doubleToLongBits(sorted[start]);
+        int end = start + 1;
+        while (end < sorted.length && Double.doubleToLongBits(sorted[end]) == bits) {
+            end++;
+        }
+        return end;
     }
     
-    private Double calculateMode(double[] values) {
-        Map<Double, Integer> frequencyMap = new HashMap<>();
-        for (double value : values) {
-            frequencyMap.put(value, frequencyMap.getOrDefault(value, 0) + 1);
+    // 与commons-math的Percentile默认估计方式一致，count为排除NaN后的个数
+    private static double percentile(double[] sorted, int count, double p) {
+        if (count == 0) {
+            return Double.NaN;
         }
-        
-        return frequencyMap.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
+        if (count == 1) {
+            return sorted[0];
+        }
+        double pos = p * (count + 1) / 100;
+        double fpos = Math.floor(pos);
+        int intPos = (int) fpos;
+        double dif = pos - fpos;
+        if (pos < 1) {
+            return sorted[0];
+        }
+        if (pos >= count) {
+            return sorted[count - 1];
+        }
+        double lower = sorted[intPos - 1];
+        double upper = sorted[intPos];
+        return lower + dif * (upper - lower);
+    }
+    
+    // 出现次数相同时取较小的值
+    private Double calculateMode(double[] sorted) {
+        Double mode = null;
+        int modeCount = 0;
+        for (int i = 0; i < sorted.length; ) {
+            int end = endOfRun(sorted, i);
+            if (end - i > modeCount) {
+                mode = sorted[i];
+                modeCount = end - i;
+            }
+            i = end;
+        }
+        return mode;
+    }
+    
+    // 草图模式下没有有序数组，用固定容量的Space-Saving摘要统计高频值，内存与不同值个数无关。
+    // 摘要精确时与精确模式结果一致；否则只有出现次数下界严格大于其他任何值可能的次数时才报告众数，
+    // 无法确定时返回null，不输出近似的众数
+    private Double calculateMode(Column column) {
+        SpaceSavingSummary summary = new SpaceSavingSummary(MODE_SUMMARY_CAPACITY);
+        column.forEachNumber(v -> summary.add(Double.doubleToLongBits(v)));
+        if (summary.getTotal() == 0) {
+            return null;
+        }
+        double[] mode = {Double.NaN};
+        long[] modeCount = {0};
+        long[] modeError = {0};
+        summary.forEach((key, count, error) -> {
+            double value = Double.longBitsToDouble(key);
+            if (count > modeCount[0] || (count == modeCount[0] && Double.compare(value, mode[0]) < 0)) {
+                mode[0] = value;
+                modeCount[0] = count;
+                modeError[0] = error;
+            }
+        });
+        if (summary.isExact()) {
+            return mode[0];
+        }
+        // 摘要外的值出现次数不超过最小计数，摘要内其他值不超过各自的计数
+        long[] rivalCount = {0};
+        long[] minCount = {Long.MAX_VALUE};
+        summary.forEach((key, count, error) -> {
+            minCount[0] = Math.min(minCount[0], count);
+            if (Double.compare(Double.longBitsToDouble(key), mode[0]) != 0) {
+                rivalCount[0] = Math.max(rivalCount[0], count);
+            }
+        });
+        return modeCount[0] - modeError[0] > Math.max(minCount[0], rivalCount[0]) ? mode[0] : null;
     }
     
-    private void detectOutliers(double[] values, AdvancedColumnStatistics stats) {
-        DescriptiveStatistics descriptiveStats = new DescriptiveStatistics(values);
-        double q1 = descriptiveStats.getPercentile(25);
-        double q3 = descriptiveStats.getPercentile(75);
+    // 边界依赖四分位数，需要在统计完成后按行顺序再遍历一次列数据
+    private void detectOutliers(Column column, double q1, double q3, AdvancedColumnStatistics stats) {
         double iqr = q3 - q1;
         double lowerBound = q1 - 1.5 * iqr;
         double upperBound = q3 + 1.5 * iqr;
         
-        List<String> outliers = Arrays.stream(values)
-                .filter(v -> v < lowerBound || v > upperBound)
-                .mapToObj(String::valueOf)
-                .collect(Collectors.toList());
+        List<String> outliers = new ArrayList<>();
+        column.forEachNumber(v -> {
+            if (v < lowerBound || v > upperBound) {
+                outliers.add(String.valueOf(v));
+            }
+        });
         
         stats.setOutliers(outliers);
     }
     
-    private void detectTextPatterns(List<String> values, AdvancedColumnStatistics stats) {
+    private void detectTextPatterns(Collection<String> values, AdvancedColumnStatistics stats) {
         // 检测常见模式
         boolean hasEmailPattern = values.stream().anyMatch(s -> s.contains("@"));
-        boolean hasPhonePattern = values.stream().anyMatch(s -> s.matches("\\d{3}-\\d{3}-\\d{4}"));
-        boolean hasDatePattern = values.stream().anyMatch(this::isDate);
+        boolean hasPhonePattern = values.stream().anyMatch(s -> PHONE_PATTERN.matcher(s).matches());
+        ValueLexer lexer = new ValueLexer();
+        boolean hasDatePattern = values.stream().anyMatch(s -> lexer.lex(s) == ValueLexer.Kind.DATE);
         
         if (hasEmailPattern) {
             stats.setHasPattern(true);
@@ -278,7 +773,7 @@ public class AdvancedStatisticalAnalysisService {
         }
     }
     
-    private void analyzeDataQuality(List<Object> values, AdvancedColumnStatistics stats) {
+    private void analyzeDataQuality(AdvancedColumnStatistics stats) {
         // 数据质量分析逻辑
         double completeness = stats.getCompletenessRatio();
         
@@ -293,22 +788,6 @@ public class AdvancedStatisticalAnalysisService {
         }
     }
     
-    private double calculateCorrelation(List<Double> x, List<Double> y, String method) {
-        double[] xArray = x.stream().mapToDouble(Double::doubleValue).toArray();
-        double[] yArray = y.stream().mapToDouble(Double::doubleValue).toArray();
-        
-        switch (method.toUpperCase()) {
-            case "PEARSON":
-                PearsonsCorrelation pearson = new PearsonsCorrelation();
-                return pearson.correlation(xArray, yArray);
-            case "SPEARMAN":
-                SpearmansCorrelation spearman = new SpearmansCorrelation();
-                return spearman.correlation(xArray, yArray);
-            default:
-                return new PearsonsCorrelation().correlation(xArray, yArray);
-        }
-    }
-    
     private Map<String, String> findStrongCorrelations(Map<String, Map<String, Double>> correlationMatrix) {
         Map<String, String> strongCorrelations = new HashMap<>();
         
@@ -350,7 +829,10 @@ public class AdvancedStatisticalAnalysisService {
         StringBuilder summary = new StringBuilder();
         summary.append("线性回归分析摘要:\n");
         summary.append(String.format("- 回归方程: %s\n", analysis.getEquation()));
-        summary.append(String.format("- 决定系数 R²: %.4f\n", analysis.getRSquared()));
+        summary.append(String.format("- 决定系数 R²: %.4f，调整后 R²: %.4f\n",
+                analysis.getRSquared(), analysis.getAdjustedRSquared()));
+        summary.append(String.format("- F统计量: %.4f，p值: %.4g，有效样本: %d\n",
+                analysis.getFStatistic(), analysis.getPValue(), analysis.getSampleSize()));
         
         if (analysis.getRSquared() > 0.8) {
             summary.append("- 模型拟合度: 优秀\n");
@@ -0,0 +1,111 @@
+package com.example.excelanalyzer.service;
+
+import com.example.excelanalyzer.entity.DataSet;
+import com.example.excelanalyzer.repository.DataSetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 异步分析任务：上传请求只负责落盘和登记数据集，解析与统计在有界线程池中执行，
+ * 客户端通过数据集ID轮询状态。
+ */
+@Service
+public class AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    // 与DataSet.errorMessage列长度一致
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    @Autowired
+    private ExcelAnalysisService excelAnalysisService;
+
+    @Autowired
+    private UploadSpoolService uploadSpoolService;
+
+    @Autowired
+    private DataSetRepository dataSetRepository;
+
+    @Autowired
+    @Qualifier("analysisJobExecutor")
+    private ExecutorService analysisJobExecutor;
+
+    public DataSet submit(MultipartFile file, List<String> sheetNames) throws IOException {
+        // 上传部件在请求结束后失效，必须在请求线程中落盘
+        Path spooledFile = uploadSpoolService.spool(file);
+        return submit(spooledFile, file.getOriginalFilename(), sheetNames);
+    }
+
+    // 暂存文件的所有权转交给分析任务，任务结束后删除；提交失败时同样删除
+    public DataSet submit(Path spooledFile, String filename, List<String> sheetNames) throws IOException {
+        try {
+            return enqueue(spooledFile, filename, sheetNames);
+        } catch (IOException | RuntimeException e) {
+            uploadSpoolService.release(spooledFile);
+            throw e;
+        }
+    }
+
+    // 提交成功后暂存文件才转交给分析任务；失败时文件仍归调用方所有，可稍后重新提交
+    public DataSet enqueue(Path spooledFile, String filename, List<String> sheetNames) throws IOException {
+        DataSet dataSet = excelAnalysisService.registerDataSet(filename, Files.size(spooledFile));
+
+        Long datasetId = dataSet.getId();
+        try {
+            analysisJobExecutor.submit(() -> runJob(datasetId, spooledFile, sheetNames));
+        } catch (RejectedExecutionException e) {
+            excelAnalysisService.markDataSetFailed(datasetId, "分析队列已满，请稍后重试");
+            throw e;
+        }
+        logger.info("分析任务已提交，数据集ID: {}", datasetId);
+        return dataSet;
+    }
+
+    public Optional<Map<String, Object>> getStatus(Long datasetId) {
+        return dataSetRepository.findById(datasetId).map(dataSet -> {
+            Map<String, Object> status = new HashMap<>();
+            status.put("datasetId", dataSet.getId());
+            status.put("fileName", dataSet.getOriginalFileName());
+            status.put("status", dataSet.getStatus());
+            status.put("uploadTime", dataSet.getUploadTime());
+            status.put("lastAnalyzed", dataSet.getLastAnalyzed());
+            if ("ANALYZED".equals(dataSet.getStatus())) {
+                status.put("totalRows", dataSet.getTotalRows());
+                status.put("totalColumns", dataSet.getTotalColumns());
+                status.put("sheetNames", dataSet.getSheetNames());
+            } else if ("ERROR".equals(dataSet.getStatus())) {
+                status.put("errorMessage", dataSet.getErrorMessage());
+            }
+            return status;
+        });
+    }
+
+    private void runJob(Long datasetId, Path spooledFile, List<String> sheetNames) {
+        try {
+            excelAnalysisService.analyzeDataSet(datasetId, spooledFile, sheetNames);
+        } catch (Exception e) {
+            logger.error("分析任务失败，数据集ID: {}", datasetId, e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (message.length() > MAX_ERROR_LENGTH) {
+                message = message.substring(0, MAX_ERROR_LENGTH);
+            }
+            excelAnalysisService.markDataSetFailed(datasetId, message);
+        } finally {
+            uploadSpoolService.release(spooledFile);
+        }
+    }
+}
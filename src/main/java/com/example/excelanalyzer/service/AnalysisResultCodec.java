@@ -0,0 +1,590 @@
+package com.example.excelanalyzer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 分析结果的二进制编码，替代整段JSON文本。文件头之后是全部对象字段名组成的键表和分段索引，
+ * 结果为对象时每个顶层字段(例如统计结果中的每一列)单独成段、单独压缩，读取某一列时只解压和解码这一段。
+ * 值按类型标签编码：整数为zigzag变长整数，浮点数为8字节小端，全部为double的数组整块存放，
+ * 对象字段名写作键表下标。
+ */
+@Service
+public class AnalysisResultCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisResultCodec.class);
+
+    private static final int MAGIC = 0x53455258; // "XRES"
+    private static final byte VERSION = 1;
+
+    private static final byte ROOT_OBJECT = 0;
+    private static final byte ROOT_VALUE = 1;
+
+    // 值的类型标签
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte STRING = 6;
+    private static final byte ARRAY = 7;
+    private static final byte OBJECT = 8;
+    private static final byte DOUBLE_ARRAY = 9;
+    private static final byte BIG_INTEGER = 10;
+    private static final byte BIG_DECIMAL = 11;
+    private static final byte BINARY = 12;
+
+    public enum Compression { NONE, DEFLATE, LZ4 }
+
+    // 各段的压缩方式：NONE、DEFLATE或LZ4
+    @Value("${analyzer.result.compression:DEFLATE}")
+    private String compression = "DEFLATE";
+
+    // 小于该大小(字节)的段不压缩
+    @Value("${analyzer.result.compression-min-bytes:256}")
+    private int compressionMinBytes = 256;
+
+    private Compression sectionCompression = Compression.DEFLATE;
+
+    private final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+
+    @PostConstruct
+    public void init() {
+        try {
+            sectionCompression = Compression.valueOf(compression.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的分析结果压缩方式: " + compression);
+        }
+        logger.info("分析结果二进制编码，压缩方式: {}", sectionCompression);
+    }
+
+    public byte[] encode(JsonNode root) {
+        KeyTable keys = new KeyTable();
+        List<Integer> sectionKeys = new ArrayList<>();
+        List<byte[]> sections = new ArrayList<>();
+        if (root.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                sectionKeys.add(keys.id(field.getKey()));
+                sections.add(encodeSection(field.getValue(), keys));
+            }
+        } else {
+            sections.add(encodeSection(root, keys));
+        }
+
+        Output out = new Output();
+        out.writeInt(MAGIC);
+        out.write(VERSION);
+        out.write(root.isObject() ? ROOT_OBJECT : ROOT_VALUE);
+        out.writeVarLong(keys.names.size());
+        for (String name : keys.names) {
+            out.writeString(name);
+        }
+        List<byte[]> stored = new ArrayList<>(sections.size());
+        out.writeVarLong(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            byte[] raw = sections.get(i);
+            Compression method = raw.length < compressionMinBytes ? Compression.NONE : sectionCompression;
+            byte[] data = compress(raw, method);
+            // 压缩后没有变小的段按原样保存
+            if (data.length >= raw.length) {
+                method = Compression.NONE;
+                data = raw;
+            }
+            stored.add(data);
+            if (root.isObject()) {
+                out.writeVarLong(sectionKeys.get(i));
+            }
+            out.write((byte) method.ordinal());
+            out.writeVarLong(data.length);
+            out.writeVarLong(raw.length);
+        }
+        for (byte[] data : stored) {
+            out.write(data, 0, data.length);
+        }
+        return out.toByteArray();
+    }
+
+    public JsonNode decode(byte[] data) {
+        Header header = readHeader(data);
+        if (!header.object) {
+            return decodeSection(data, header, 0);
+        }
+        ObjectNode root = nodeFactory.objectNode();
+        for (int i = 0; i < header.sectionKeys.length; i++) {
+            root.set(header.keys[header.sectionKeys[i]], decodeSection(data, header, i));
+        }
+        return root;
+    }
+
+    /**
+     * 只解码结果对象的一个顶层字段，例如统计结果中的一列；字段不存在或结果不是对象时返回null。
+     */
+    public JsonNode decodeField(byte[] data, String field) {
+        Header header = readHeader(data);
+        if (header.object) {
+            for (int i = 0; i < header.sectionKeys.length; i++) {
+                if (header.keys[header.sectionKeys[i]].equals(field)) {
+                    return decodeSection(data, header, i);
+                }
+            }
+        }
+        return null;
+    }
+
+    private byte[] encodeSection(JsonNode value, KeyTable keys) {
+        Output out = new Output();
+        writeValue(out, value, keys);
+        return out.toByteArray();
+    }
+
+    private void writeValue(Output out, JsonNode node, KeyTable keys) {
+        switch (node.getNodeType()) {
+            case BOOLEAN:
+                out.write(node.booleanValue() ? TRUE : FALSE);
+                break;
+            case NUMBER:
+                if (node.isBigInteger() && !node.canConvertToLong()) {
+                    out.write(BIG_INTEGER);
+                    out.writeString(node.bigIntegerValue().toString());
+                } else if (node.isIntegralNumber()) {
+                    out.write(INT);
+                    out.writeVarLong(zigzag(node.longValue()));
+                } else if (node.isBigDecimal()) {
+                    out.write(BIG_DECIMAL);
+                    out.writeString(node.decimalValue().toString());
+                } else if (node.isFloat()) {
+                    out.write(FLOAT);
+                    out.writeInt(Float.floatToRawIntBits(node.floatValue()));
+                } else {
+                    out.write(DOUBLE);
+                    out.writeLong(Double.doubleToRawLongBits(node.doubleValue()));
+                }
+                break;
+            case STRING:
+                out.write(STRING);
+                out.writeString(node.textValue());
+                break;
+            case BINARY:
+                try {
+                    byte[] bytes = node.binaryValue();
+                    out.write(BINARY);
+                    out.writeVarLong(bytes.length);
+                    out.write(bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                break;
+            case ARRAY:
+                if (isDoubleArray(node)) {
+                    out.write(DOUBLE_ARRAY);
+                    out.writeVarLong(node.size());
+                    for (JsonNode element : node) {
+                        out.writeLong(Double.doubleToRawLongBits(element.doubleValue()));
+                    }
+                } else {
+                    out.write(ARRAY);
+                    out.writeVarLong(node.size());
+                    for (JsonNode element : node) {
+                        writeValue(out, element, keys);
+                    }
+                }
+                break;
+            case OBJECT:
+                out.write(OBJECT);
+                out.writeVarLong(node.size());
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    out.writeVarLong(keys.id(field.getKey()));
+                    writeValue(out, field.getValue(), keys);
+                }
+                break;
+            case NULL:
+            case MISSING:
+                out.write(NULL);
+                break;
+            default:
+                throw new IllegalArgumentException("无法编码的分析结果节点类型: " + node.getNodeType());
+        }
+    }
+
+    private static boolean isDoubleArray(JsonNode node) {
+        if (node.size() < 2) {
+            return false;
+        }
+        for (JsonNode element : node) {
+            if (!element.isDouble()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JsonNode decodeSection(byte[] data, Header header, int section) {
+        byte[] raw = decompress(data, header.offsets[section], header.storedLengths[section],
+                header.rawLengths[section], header.compressions[section]);
+        Input in = new Input(raw, 0, raw.length);
+        JsonNode value = readValue(in, header.keys);
+        if (in.position != raw.length) {
+            throw new IllegalArgumentException("分析结果数据格式无效: 段长度不符");
+        }
+        return value;
+    }
+
+    private JsonNode readValue(Input in, String[] keys) {
+        byte tag = in.read();
+        switch (tag) {
+            case NULL:
+                return nodeFactory.nullNode();
+            case FALSE:
+                return nodeFactory.booleanNode(false);
+            case TRUE:
+                return nodeFactory.booleanNode(true);
+            case INT: {
+                long value = unzigzag(in.readVarLong());
+                return value == (int) value ? nodeFactory.numberNode((int) value) : nodeFactory.numberNode(value);
+            }
+            case DOUBLE:
+                return nodeFactory.numberNode(Double.longBitsToDouble(in.readLong()));
+            case FLOAT:
+                return nodeFactory.numberNode(Float.intBitsToFloat(in.readInt()));
+            case STRING:
+                return nodeFactory.textNode(in.readString());
+            case BIG_INTEGER:
+                return nodeFactory.numberNode(new BigInteger(in.readString()));
+            case BIG_DECIMAL:
+                return nodeFactory.numberNode(new BigDecimal(in.readString()));
+            case BINARY:
+                return nodeFactory.binaryNode(in.readBytes(in.readLength()));
+            case DOUBLE_ARRAY: {
+                int size = in.readLength();
+                ArrayNode array = nodeFactory.arrayNode(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(Double.longBitsToDouble(in.readLong()));
+                }
+                return array;
+            }
+            case ARRAY: {
+                int size = in.readLength();
+                ArrayNode array = nodeFactory.arrayNode(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(readValue(in, keys));
+                }
+                return array;
+            }
+            case OBJECT: {
+                int size = in.readLength();
+                ObjectNode object = nodeFactory.objectNode();
+                for (int i = 0; i < size; i++) {
+                    object.set(keys[in.readIndex(keys.length)], readValue(in, keys));
+                }
+                return object;
+            }
+            default:
+                throw new IllegalArgumentException("分析结果数据格式无效: 未知类型标签 " + tag);
+        }
+    }
+
+    private Header readHeader(byte[] data) {
+        Input in = new Input(data, 0, data.length);
+        if (data.length < 6 || in.readInt() != MAGIC || in.read() != VERSION) {
+            throw new IllegalArgumentException("分析结果数据格式无效");
+        }
+        Header header = new Header();
+        byte rootKind = in.read();
+        if (rootKind != ROOT_OBJECT && rootKind != ROOT_VALUE) {
+            throw new IllegalArgumentException("分析结果数据格式无效");
+        }
+        header.object = rootKind == ROOT_OBJECT;
+        header.keys = new String[in.readLength()];
+        for (int i = 0; i < header.keys.length; i++) {
+            header.keys[i] = in.readString();
+        }
+        int sectionCount = in.readLength();
+        if (!header.object && sectionCount != 1) {
+            throw new IllegalArgumentException("分析结果数据格式无效: 段数不符");
+        }
+        header.sectionKeys = new int[sectionCount];
+        header.compressions = new Compression[sectionCount];
+        header.storedLengths = new int[sectionCount];
+        header.rawLengths = new int[sectionCount];
+        header.offsets = new int[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            if (header.object) {
+                header.sectionKeys[i] = in.readIndex(header.keys.length);
+            }
+            header.compressions[i] = Compression.values()[in.readIndex(Compression.values().length)];
+            header.storedLengths[i] = in.readLength();
+            header.rawLengths[i] = in.readIndex(Integer.MAX_VALUE);
+            if (header.compressions[i] == Compression.NONE && header.rawLengths[i] != header.storedLengths[i]) {
+                throw new IllegalArgumentException("分析结果数据格式无效: 长度不符");
+            }
+        }
+        int offset = in.position;
+        for (int i = 0; i < sectionCount; i++) {
+            header.offsets[i] = offset;
+            offset += header.storedLengths[i];
+        }
+        if (offset != data.length) {
+            throw new IllegalArgumentException("分析结果数据格式无效: 长度不符");
+        }
+        return header;
+    }
+
+    private static byte[] compress(byte[] raw, Compression method) {
+        switch (method) {
+            case DEFLATE: {
+                Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                try {
+                    deflater.setInput(raw);
+                    deflater.finish();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+                    byte[] buffer = new byte[8192];
+                    while (!deflater.finished()) {
+                        out.write(buffer, 0, deflater.deflate(buffer));
+                    }
+                    return out.toByteArray();
+                } finally {
+                    deflater.end();
+                }
+            }
+            case LZ4: {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+                try (BlockLZ4CompressorOutputStream lz4 = new BlockLZ4CompressorOutputStream(out)) {
+                    lz4.write(raw);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return out.toByteArray();
+            }
+            default:
+                return raw;
+        }
+    }
+
+    private static byte[] decompress(byte[] data, int offset, int length, int rawLength, Compression method) {
+        byte[] raw = new byte[rawLength];
+        switch (method) {
+            case DEFLATE: {
+                Inflater inflater = new Inflater(true);
+                try {
+                    inflater.setInput(data, offset, length);
+                    int read = 0;
+                    while (read < rawLength && !inflater.finished()) {
+                        int n = inflater.inflate(raw, read, rawLength - read);
+                        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        read += n;
+                    }
+                    if (read != rawLength) {
+                        throw new IllegalArgumentException("分析结果数据格式无效: 解压长度不符");
+                    }
+                } catch (DataFormatException e) {
+                    throw new IllegalArgumentException("分析结果数据格式无效: " + e.getMessage(), e);
+                } finally {
+                    inflater.end();
+                }
+                return raw;
+            }
+            case LZ4:
+                try (BlockLZ4CompressorInputStream lz4 = new BlockLZ4CompressorInputStream(
+                        new ByteArrayInputStream(data, offset, length))) {
+                    if (lz4.readNBytes(raw, 0, rawLength) != rawLength) {
+                        throw new IllegalArgumentException("分析结果数据格式无效: 解压长度不符");
+                    }
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("分析结果数据格式无效: " + e.getMessage(), e);
+                }
+                return raw;
+            default:
+                System.arraycopy(data, offset, raw, 0, rawLength);
+                return raw;
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // 字段名按首次出现的顺序编号，整个结果共用一张键表
+    private static final class KeyTable {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private int id(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    private static final class Header {
+        private boolean object;
+        private String[] keys;
+        private int[] sectionKeys;
+        private Compression[] compressions;
+        private int[] storedLengths;
+        private int[] rawLengths;
+        private int[] offsets;
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output() {
+            super(256);
+        }
+
+        private void write(byte value) {
+            super.write(value);
+        }
+
+        private void writeInt(int value) {
+            for (int i = 0; i < 4; i++) {
+                super.write(value >>> (8 * i));
+            }
+        }
+
+        private void writeLong(long value) {
+            for (int i = 0; i < 8; i++) {
+                super.write((int) (value >>> (8 * i)));
+            }
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                super.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            super.write((int) value);
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        private Input(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        private void require(int bytes) {
+            if (bytes < 0 || position + bytes > limit) {
+                throw new IllegalArgumentException("分析结果数据格式无效: 数据不完整");
+            }
+        }
+
+        private byte read() {
+            require(1);
+            return data[position++];
+        }
+
+        private int readInt() {
+            require(4);
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value |= (data[position++] & 0xFF) << (8 * i);
+            }
+            return value;
+        }
+
+        private long readLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (data[position++] & 0xFFL) << (8 * i);
+            }
+            return value;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("分析结果数据格式无效: 变长整数过长");
+        }
+
+        // 长度不能超过剩余数据，防止损坏的数据导致超大分配
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > limit - position) {
+                throw new IllegalArgumentException("分析结果数据格式无效: 长度越界");
+            }
+            return (int) length;
+        }
+
+        private int readIndex(int bound) {
+            long index = readVarLong();
+            if (index < 0 || index >= bound) {
+                throw new IllegalArgumentException("分析结果数据格式无效: 下标越界");
+            }
+            return (int) index;
+        }
+
+        private byte[] readBytes(int length) {
+            require(length);
+            byte[] bytes = new byte[length];
+            System.arraycopy(data, position, bytes, 0, length);
+            position += length;
+            return bytes;
+        }
+
+        private String readString() {
+            int length = readLength();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
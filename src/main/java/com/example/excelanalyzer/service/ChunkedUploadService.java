@@ -0,0 +1,250 @@
+package com.example.excelanalyzer.service;
+
+import com.example.excelanalyzer.entity.DataSet;
+import com.example.excelanalyzer.model.ChunkedUploadRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可续传的分块上传：每个分块按偏移量直接写入暂存文件，分块可乱序、重复上传，
+ * 全部到齐后暂存文件即为完整文件，无需再拼接复制，直接提交分析任务。
+ * 未完成的会话空闲超过 {@code analyzer.upload.session-timeout-minutes} 后定期清理。
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> SUPPORTED_EXTENSIONS = List.of(".xlsx", ".xls", ".csv", ".tsv", ".arrow", ".arrows");
+
+    @Autowired
+    private UploadSpoolService uploadSpoolService;
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Value("${analyzer.upload.chunk-size-bytes:8388608}")
+    private long chunkSize;
+
+    @Value("${analyzer.upload.max-file-size-bytes:10737418240}")
+    private long maxFileSize;
+
+    @Value("${analyzer.upload.session-timeout-minutes:60}")
+    private long sessionTimeoutMinutes;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public Map<String, Object> init(ChunkedUploadRequest request) throws IOException {
+        String fileName = request.getFileName();
+        if (fileName == null || SUPPORTED_EXTENSIONS.stream().noneMatch(fileName::endsWith)) {
+            throw new IllegalArgumentException("不支持的文件格式: " + fileName);
+        }
+        if (request.getFileSize() <= 0 || request.getFileSize() > maxFileSize) {
+            throw new IllegalArgumentException("文件大小无效: " + request.getFileSize());
+        }
+        purgeExpiredSessions();
+
+        // 暂存文件在创建会话时建立，写入分块时不再创建，会话被清理后迟到的分块不会留下孤立文件
+        Path spoolFile = Files.createFile(uploadSpoolService.newSpoolFile(fileName));
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), fileName, request.getFileSize(),
+                request.getSheets(), spoolFile);
+        sessions.put(session.uploadId, session);
+        logger.info("分块上传已创建: {} ({}，{} 字节，{} 个分块)",
+                session.uploadId, fileName, session.fileSize, session.totalChunks);
+        return describe(session);
+    }
+
+    public Map<String, Object> getStatus(String uploadId) {
+        return describe(getSession(uploadId));
+    }
+
+    // 分块按偏移量写入，同一分块重复上传时直接覆盖
+    public Map<String, Object> writeChunk(String uploadId, int chunkIndex, InputStream content) throws IOException {
+        UploadSession session = getSession(uploadId);
+        if (chunkIndex < 0 || chunkIndex >= session.totalChunks) {
+            throw new IllegalArgumentException("分块序号无效: " + chunkIndex);
+        }
+        long position = chunkIndex * chunkSize;
+        long expectedLength = Math.min(chunkSize, session.fileSize - position);
+
+        session.beginWrite();
+        boolean complete = false;
+        try (FileChannel channel = FileChannel.open(session.spoolFile, StandardOpenOption.WRITE)) {
+            // transferFrom在偏移量超过文件末尾时不写入，乱序分块需要按位置显式写入
+            ReadableByteChannel source = Channels.newChannel(content);
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            long written = 0;
+            while (written < expectedLength) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), expectedLength - written));
+                if (source.read(buffer) < 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, position + written);
+                }
+            }
+            if (written != expectedLength || content.read() != -1) {
+                throw new IllegalArgumentException("分块 " + chunkIndex + " 长度不符，应为 " + expectedLength + " 字节");
+            }
+            complete = true;
+        } finally {
+            session.endWrite(chunkIndex, complete);
+        }
+        return describe(session);
+    }
+
+    public DataSet complete(String uploadId) throws IOException {
+        UploadSession session = getSession(uploadId);
+        session.markCompleted();
+        DataSet dataSet;
+        try {
+            dataSet = analysisJobService.enqueue(session.spoolFile, session.fileName, session.sheets);
+        } catch (IOException | RuntimeException e) {
+            // 提交失败(例如分析队列已满)时保留会话和暂存文件，稍后可再次完成上传，无需重新上传分块
+            session.reopen();
+            throw e;
+        }
+        // 提交成功后暂存文件的所有权已转交给分析任务
+        sessions.remove(uploadId);
+        return dataSet;
+    }
+
+    public void abort(String uploadId) {
+        UploadSession session = sessions.remove(uploadId);
+        if (session != null) {
+            uploadSpoolService.release(session.spoolFile);
+            logger.info("分块上传已取消: {}", uploadId);
+        }
+    }
+
+    private UploadSession getSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new IllegalArgumentException("上传会话不存在: " + uploadId);
+        }
+        return session;
+    }
+
+    @Scheduled(fixedDelayString = "${analyzer.upload.purge-interval-minutes:5}", timeUnit = TimeUnit.MINUTES)
+    public void purgeExpiredSessions() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(sessionTimeoutMinutes));
+        sessions.values().removeIf(session -> {
+            if (session.isIdleSince(cutoff)) {
+                logger.info("分块上传已过期: {}", session.uploadId);
+                uploadSpoolService.release(session.spoolFile);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private Map<String, Object> describe(UploadSession session) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("uploadId", session.uploadId);
+        status.put("fileName", session.fileName);
+        status.put("fileSize", session.fileSize);
+        status.put("chunkSize", chunkSize);
+        status.put("totalChunks", session.totalChunks);
+        status.put("receivedChunks", session.receivedChunks());
+        return status;
+    }
+
+    private class UploadSession {
+        private final String uploadId;
+        private final String fileName;
+        private final long fileSize;
+        private final int totalChunks;
+        private final List<String> sheets;
+        private final Path spoolFile;
+        private final BitSet received = new BitSet();
+        private int activeWrites;
+        private boolean completed;
+        private Instant lastActivity = Instant.now();
+
+        UploadSession(String uploadId, String fileName, long fileSize, List<String> sheets, Path spoolFile) {
+            this.uploadId = uploadId;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+            this.totalChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+            this.sheets = sheets;
+            this.spoolFile = spoolFile;
+        }
+
+        synchronized void beginWrite() {
+            // 会话可能在getSession之后被清理或取消，暂存文件已删除
+            if (sessions.get(uploadId) != this) {
+                throw new IllegalArgumentException("上传会话不存在: " + uploadId);
+            }
+            if (completed) {
+                throw new IllegalStateException("上传已完成: " + uploadId);
+            }
+            activeWrites++;
+            lastActivity = Instant.now();
+        }
+
+        synchronized void endWrite(int chunkIndex, boolean complete) {
+            activeWrites--;
+            if (complete) {
+                received.set(chunkIndex);
+            } else {
+                // 写入失败的分块需要重新上传
+                received.clear(chunkIndex);
+            }
+            lastActivity = Instant.now();
+        }
+
+        synchronized void markCompleted() {
+            if (completed) {
+                throw new IllegalStateException("上传已完成: " + uploadId);
+            }
+            if (activeWrites > 0 || received.cardinality() < totalChunks) {
+                throw new IllegalStateException("分块尚未全部上传: " + received.cardinality() + "/" + totalChunks);
+            }
+            completed = true;
+        }
+
+        synchronized void reopen() {
+            completed = false;
+            lastActivity = Instant.now();
+        }
+
+        // 正在提交的会话不过期，暂存文件可能已转交给分析任务
+        synchronized boolean isIdleSince(Instant cutoff) {
+            return activeWrites == 0 && !completed && lastActivity.isBefore(cutoff);
+        }
+
+        synchronized List<Integer> receivedChunks() {
+            List<Integer> chunks = new ArrayList<>();
+            received.stream().forEach(chunks::add);
+            return chunks;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.excelanalyzer.service;
+
+import com.example.excelanalyzer.dataframe.Column;
+import com.example.excelanalyzer.dataframe.ColumnFile;
+import com.example.excelanalyzer.dataframe.DataFrame;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 按数据集ID保存解析后的列数据：每个数据集一个目录，目录下dataset.json记录各工作表的名称、行数和表头，
+ * 每列写成一个列文件(见 {@link ColumnFile})。回归等后续分析通过内存映射直接读取列文件，不再解析原文件。
+ * 最近使用的若干个数据集保持映射状态，超出后按最久未使用的顺序关闭，需要时重新映射。
+ */
+@Service
+public class DataSetColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSetColumnStore.class);
+
+    private static final String METADATA_FILE = "dataset.json";
+
+    @Value("${analyzer.store.dir:${java.io.tmpdir}/excel-analyzer-store}")
+    private String storeDir;
+
+    // 保持映射的数据集个数
+    @Value("${analyzer.store.max-open-datasets:16}")
+    private int maxOpenDataSets = 16;
+
+    private Path storePath;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Long, Map<String, DataFrame>> openDataSets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Map<String, DataFrame>> eldest) {
+            return size() > maxOpenDataSets;
+        }
+    };
+
+    @PostConstruct
+    public void init() throws IOException {
+        storePath = Paths.get(storeDir).toAbsolutePath();
+        Files.createDirectories(storePath);
+        logger.info("数据集列存储目录: {}", storePath);
+    }
+
+    /**
+     * 写出数据集各工作表的全部列，sheets按工作表顺序排列。先写入临时目录再整体改名，
+     * 读取方不会看到写了一半的数据集；已有的同ID数据集被替换。
+     */
+    public void save(Long datasetId, Map<String, DataFrame> sheets) throws IOException {
+        Path target = dataSetPath(datasetId);
+        Path staging = storePath.resolve(datasetId + ".tmp-" + UUID.randomUUID());
+        try {
+            Files.createDirectories(staging);
+            List<Map<String, Object>> metadata = new ArrayList<>();
+            int sheetIndex = 0;
+            for (Map.Entry<String, DataFrame> entry : sheets.entrySet()) {
+                DataFrame frame = entry.getValue();
+                Path sheetPath = Files.createDirectory(staging.resolve(String.valueOf(sheetIndex++)));
+                for (int i = 0; i < frame.getColumnCount(); i++) {
+                    ColumnFile.write(frame.getColumn(i), sheetPath.resolve(i + ".col"));
+                }
+                Map<String, Object> sheet = new LinkedHashMap<>();
+                sheet.put("name", entry.getKey());
+                sheet.put("rowCount", frame.getRowCount());
+                sheet.put("headers", frame.getHeaders());
+                metadata.add(sheet);
+            }
+            objectMapper.writeValue(staging.resolve(METADATA_FILE).toFile(), Map.of("sheets", metadata));
+
+            synchronized (this) {
+                openDataSets.remove(datasetId);
+                FileSystemUtils.deleteRecursively(target);
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            logger.info("数据集 {} 的列数据已写入: {}", datasetId, target);
+        } finally {
+            FileSystemUtils.deleteRecursively(staging);
+        }
+    }
+
+    // sheetName为空时返回第一个工作表；数据集或工作表不存在时返回null。返回的列只读
+    public synchronized DataFrame load(Long datasetId, String sheetName) throws IOException {
+        Map<String, DataFrame> sheets = openDataSets.get(datasetId);
+        if (sheets == null) {
+            sheets = open(datasetId);
+            if (sheets == null) {
+                return null;
+            }
+            openDataSets.put(datasetId, sheets);
+        }
+        if (sheets.isEmpty()) {
+            return null;
+        }
+        return sheetName == null ? sheets.values().iterator().next() : sheets.get(sheetName);
+    }
+
+    public synchronized void remove(Long datasetId) throws IOException {
+        openDataSets.remove(datasetId);
+        FileSystemUtils.deleteRecursively(dataSetPath(datasetId));
+    }
+
+    private Map<String, DataFrame> open(Long datasetId) throws IOException {
+        Path path = dataSetPath(datasetId);
+        Path metadataFile = path.resolve(METADATA_FILE);
+        if (!Files.exists(metadataFile)) {
+            return null;
+        }
+        Map<String, List<Map<String, Object>>> metadata = objectMapper.readValue(metadataFile.toFile(),
+                new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+        Map<String, DataFrame> sheets = new LinkedHashMap<>();
+        int sheetIndex = 0;
+        for (Map<String, Object> sheet : metadata.get("sheets")) {
+            @SuppressWarnings("unchecked")
+            List<String> headers = (List<String>) sheet.get("headers");
+            Path sheetPath = path.resolve(String.valueOf(sheetIndex++));
+            List<Column> columns = new ArrayList<>(headers.size());
+            for (int i = 0; i < headers.size(); i++) {
+                Column column = ColumnFile.map(sheetPath.resolve(i + ".col"), headers.get(i));
+                // 映射的列可能被多个分析并发读取，先完成字典解析
+                column.parseDictionary();
+                columns.add(column);
+            }
+            sheets.put((String) sheet.get("name"), DataFrame.of(headers, columns));
+        }
+        logger.debug("已映射数据集 {} 的列数据，共 {} 个工作表", datasetId, sheets.size());
+        return sheets;
+    }
+
+    private Path dataSetPath(Long datasetId) {
+        return storePath.resolve(String.valueOf(datasetId));
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.excelanalyzer.service;
 
+import com.example.excelanalyzer.dataframe.ArrowIpcReader;
+import com.example.excelanalyzer.dataframe.ArrowIpcWriter;
+import com.example.excelanalyzer.dataframe.Column;
+import com.example.excelanalyzer.dataframe.DataFrame;
 import com.example.excelanalyzer.entity.AnalysisResult;
 import com.example.excelanalyzer.entity.DataSet;
 import com.example.excelanalyzer.model.AdvancedColumnStatistics;
@@ -8,23 +12,46 @@ import com.example.excelanalyzer.model.DataAnalysisResult;
 import com.example.excelanalyzer.model.RegressionAnalysis;
 import com.example.excelanalyzer.repository.AnalysisResultRepository;
 import com.example.excelanalyzer.repository.DataSetRepository;
+import com.example.excelanalyzer.reader.CsvChunkedReader;
+import com.example.excelanalyzer.reader.SheetDataCollector;
+import com.example.excelanalyzer.reader.WorkbookFormulaEvaluator;
+import com.example.excelanalyzer.reader.WorkbookSheetReader;
+import com.example.excelanalyzer.reader.XlsStreamingReader;
+import com.example.excelanalyzer.reader.XlsxStreamingReader;
+import com.example.excelanalyzer.stats.ColumnProfileTask;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 @Service
 @Transactional
@@ -44,102 +71,272 @@ public class ExcelAnalysisService {
     @Autowired
     private ChartGenerationService chartGenerationService;
 
+    @Autowired
+    private UploadSpoolService uploadSpoolService;
+
+    @Autowired
+    private DataSetColumnStore dataSetColumnStore;
+
+    @Autowired
+    private AnalysisResultCodec analysisResultCodec;
+
+    @Autowired
+    private RegressionResidualStore residualStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("sheetAnalysisExecutor")
+    private ExecutorService sheetAnalysisExecutor;
+
+    @Autowired
+    @Qualifier("columnProfilingPool")
+    private ForkJoinPool columnProfilingPool;
+
+    // 超过该大小的xlsx/xls文件使用流式读取
+    @Value("${analyzer.ingest.streaming-threshold-bytes:10485760}")
+    private long streamingThresholdBytes;
+
+    // CSV/TSV并行解析的分块大小
+    @Value("${analyzer.ingest.csv-chunk-bytes:16777216}")
+    private long csvChunkBytes;
+
+    // 是否重新计算公式；默认读取文件中保存的公式缓存结果
+    @Value("${analyzer.ingest.recalculate-formulas:false}")
+    private boolean recalculateFormulas;
+
+    // 数据集相关性分析使用的方法：PEARSON、SPEARMAN或KENDALL
+    @Value("${analyzer.analysis.correlation-method:PEARSON}")
+    private String correlationMethod;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DataAnalysisResult analyzeExcelFile(MultipartFile file) throws IOException {
-        logger.info("开始分析Excel文件: {}", file.getOriginalFilename());
+        return analyzeExcelFile(file, null);
+    }
+
+    // sheetNames为空时分析全部工作表，否则只分析指定的工作表
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DataAnalysisResult analyzeExcelFile(MultipartFile file, List<String> sheetNames) throws IOException {
+        // 上传内容先落盘到暂存目录，解析器按文件随机访问
+        Path spooledFile = uploadSpoolService.spool(file);
+        try {
+            return analyzeFile(spooledFile, file.getOriginalFilename(), sheetNames);
+        } finally {
+            uploadSpoolService.release(spooledFile);
+        }
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DataAnalysisResult analyzeFile(Path file, String filename, List<String> sheetNames) throws IOException {
+        DataSet dataSet = registerDataSet(filename, Files.size(file));
+        Map<String, SheetAnalysis> analyses = analyzeAndSave(dataSet.getId(), file, sheetNames);
+        return buildAnalysisResult(filename, analyses);
+    }
+
+    // 登记待分析的数据集，状态为ANALYZING，分析完成后更新为ANALYZED
+    @Transactional
+    public DataSet registerDataSet(String filename, long fileSize) {
+        DataSet dataSet = new DataSet(
+            generateUniqueFileName(filename),
+            filename,
+            fileSize,
+            getFileExtension(filename)
+        );
+        dataSet.setTotalRows(0);
+        dataSet.setTotalColumns(0);
+        dataSet.setStatus("ANALYZING");
+        return dataSetRepository.save(dataSet);
+    }
+
+    @Transactional
+    public void markDataSetFailed(Long datasetId, String errorMessage) {
+        dataSetRepository.findById(datasetId).ifPresent(dataSet -> {
+            dataSet.setStatus("ERROR");
+            dataSet.setErrorMessage(errorMessage);
+            dataSet.setLastAnalyzed(LocalDateTime.now());
+            dataSetRepository.save(dataSet);
+        });
+    }
+
+    // 异步分析任务的入口，结果保存后即返回，客户端通过数据集状态获取进度
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void analyzeDataSet(Long datasetId, Path file, List<String> sheetNames) throws IOException {
+        analyzeAndSave(datasetId, file, sheetNames);
+    }
+
+    // 解析和统计可能持续数分钟，在事务之外执行，只在最后保存结果时开启一个短事务
+    private Map<String, SheetAnalysis> analyzeAndSave(Long datasetId, Path file, List<String> sheetNames)
+            throws IOException {
+        DataSet dataSet = dataSetRepository.findById(datasetId)
+                .orElseThrow(() -> new IllegalArgumentException("数据集不存在: " + datasetId));
+        String filename = dataSet.getOriginalFileName();
+        logger.info("开始分析Excel文件: {}", filename);
+        // 清除同ID的旧列数据(数据库重建后ID会重复使用)
+        dataSetColumnStore.remove(datasetId);
         
         Workbook workbook = null;
+        XlsxStreamingReader xlsxReader = null;
         try {
-            // 创建数据集实体
-            DataSet dataSet = new DataSet(
-                generateUniqueFileName(file.getOriginalFilename()),
-                file.getOriginalFilename(),
-                file.getSize(),
-                getFileExtension(file.getOriginalFilename())
-            );
-
-            // 根据文件扩展名创建相应的工作簿
-            String filename = file.getOriginalFilename();
-            if (filename.endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(file.getInputStream());
-            } else if (filename.endsWith(".xls")) {
-                workbook = new HSSFWorkbook(file.getInputStream());
+            long fileSize = dataSet.getFileSize();
+
+            // 每个工作表对应一个读取任务：xlsx流式读取在工作线程中并行解析，其余方式先在当前线程顺序解析
+            Map<String, Callable<SheetDataCollector>> sheetReaders = new LinkedHashMap<>();
+            // 公式重算需要完整的工作簿模型，此时不使用流式读取
+            boolean streaming = fileSize > streamingThresholdBytes && !recalculateFormulas;
+            if (filename.endsWith(".xlsx") && streaming) {
+                logger.info("文件大小 {} 字节超过流式读取阈值，使用SAX流式解析", fileSize);
+                xlsxReader = new XlsxStreamingReader(file.toFile());
+                XlsxStreamingReader reader = xlsxReader;
+                List<String> allSheets = reader.getSheetNames();
+                for (int index : selectSheets(allSheets, sheetNames)) {
+                    sheetReaders.put(allSheets.get(index), () -> {
+                        SheetDataCollector collector = new SheetDataCollector();
+                        reader.readSheet(index, collector);
+                        return collector;
+                    });
+                }
+            } else if (filename.endsWith(".xls") && streaming) {
+                logger.info("文件大小 {} 字节超过流式读取阈值，使用HSSF事件模型解析", fileSize);
+                try (XlsStreamingReader reader = new XlsStreamingReader(file.toFile())) {
+                    List<String> allSheets = reader.getSheetNames();
+                    Map<Integer, SheetDataCollector> collectors = new LinkedHashMap<>();
+                    for (int index : selectSheets(allSheets, sheetNames)) {
+                        collectors.put(index, new SheetDataCollector());
+                    }
+                    reader.readSheets(collectors);
+                    collectors.forEach((index, collector) -> sheetReaders.put(allSheets.get(index), () -> collector));
+                }
+            } else if (filename.endsWith(".arrow") || filename.endsWith(".arrows")) {
+                // Arrow数据已是列式格式，直接生成列，不经过行解析；整个文件作为一个以文件名命名的工作表
+                SheetDataCollector collector = new SheetDataCollector(ArrowIpcReader.read(file));
+                String sheetName = filename.substring(0, filename.lastIndexOf('.'));
+                sheetReaders.put(sheetName, () -> collector);
+            } else if (filename.endsWith(".csv") || filename.endsWith(".tsv")) {
+                // CSV/TSV没有工作表概念，整个文件作为一个以文件名命名的工作表
+                char delimiter = filename.endsWith(".tsv") ? '\t' : ',';
+                SheetDataCollector collector = new CsvChunkedReader(file, delimiter, csvChunkBytes)
+                        .read(sheetAnalysisExecutor);
+                String sheetName = filename.substring(0, filename.lastIndexOf('.'));
+                sheetReaders.put(sheetName, () -> collector);
             } else {
-                throw new IllegalArgumentException("不支持的文件格式: " + filename);
-            }
-
-            // 解析Excel数据
-            Sheet sheet = workbook.getSheetAt(0);
-            List<Map<String, Object>> data = new ArrayList<>();
-            List<String> headers = new ArrayList<>();
-
-            // 读取表头
-            Row headerRow = sheet.getRow(0);
-            if (headerRow != null) {
-                for (Cell cell : headerRow) {
-                    headers.add(getCellValueAsString(cell));
+                if (filename.endsWith(".xlsx")) {
+                    workbook = new XSSFWorkbook(OPCPackage.open(file.toFile(), PackageAccess.READ));
+                } else if (filename.endsWith(".xls")) {
+                    workbook = new HSSFWorkbook(new POIFSFileSystem(file.toFile(), true));
+                } else {
+                    throw new IllegalArgumentException("不支持的文件格式: " + filename);
                 }
-            }
-
-            // 读取数据行
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    Map<String, Object> rowData = new HashMap<>();
-                    boolean hasData = false;
-                    
-                    for (int j = 0; j < headers.size(); j++) {
-                        Cell cell = row.getCell(j);
-                        Object value = getCellValue(cell);
-                        if (value != null && !value.toString().trim().isEmpty()) {
-                            hasData = true;
-                        }
-                        rowData.put(headers.get(j), value);
+                List<String> allSheets = new ArrayList<>();
+                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                    allSheets.add(workbook.getSheetName(i));
+                }
+                if (recalculateFormulas) {
+                    // 各工作表的公式求值在工作线程中并行执行
+                    logger.info("公式重算模式，重新计算所有公式");
+                    WorkbookFormulaEvaluator formulaEvaluator = new WorkbookFormulaEvaluator(workbook);
+                    for (int index : selectSheets(allSheets, sheetNames)) {
+                        sheetReaders.put(allSheets.get(index), () -> {
+                            SheetDataCollector collector = new SheetDataCollector();
+                            formulaEvaluator.readSheet(index, collector);
+                            return collector;
+                        });
                     }
-                    
-                    if (hasData) {
-                        data.add(rowData);
+                } else {
+                    for (int index : selectSheets(allSheets, sheetNames)) {
+                        SheetDataCollector collector = new SheetDataCollector();
+                        WorkbookSheetReader.read(workbook.getSheetAt(index), collector);
+                        sheetReaders.put(allSheets.get(index), () -> collector);
                     }
                 }
             }
 
-            // 更新数据集信息
-            dataSet.setTotalRows(data.size());
-            dataSet.setTotalColumns(headers.size());
-            dataSet.setHeaders(String.join(",", headers));
-            dataSet.setStatus("ANALYZED");
-            dataSet.setLastAnalyzed(LocalDateTime.now());
-
-            // 保存数据集
-            dataSet = dataSetRepository.save(dataSet);
-            logger.info("数据集已保存，ID: {}", dataSet.getId());
-
-            // 创建分析结果
-            DataAnalysisResult result = new DataAnalysisResult(data, headers, filename);
-            
-            // 执行高级统计分析
-            Map<String, AdvancedColumnStatistics> advancedStats = performAdvancedStatisticalAnalysis(data, headers, dataSet);
-            result.setAdvancedStatistics(advancedStats);
+            // 各工作表在线程池中并行解析和分析
+            Map<String, Future<SheetAnalysis>> futures = new LinkedHashMap<>();
+            sheetReaders.forEach((sheetName, sheetReader) -> futures.put(sheetName,
+                    sheetAnalysisExecutor.submit(() -> analyzeSheet(sheetName, sheetReader.call()))));
+            Map<String, SheetAnalysis> analyses = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<SheetAnalysis>> entry : futures.entrySet()) {
+                analyses.put(entry.getKey(), await(entry.getValue()));
+            }
 
-            // 执行相关性分析
-            CorrelationAnalysis correlationAnalysis = performCorrelationAnalysis(data, headers, dataSet);
-            result.setCorrelationAnalysis(correlationAnalysis);
+            // 解析后的列数据写入列存储，回归等后续分析直接映射读取，不再解析原文件
+            Map<String, DataFrame> frames = new LinkedHashMap<>();
+            analyses.forEach((sheetName, analysis) -> frames.put(sheetName, analysis.dataFrame));
+            try {
+                dataSetColumnStore.save(datasetId, frames);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("保存数据集 {} 的列数据失败，回归分析将不可用: {}", datasetId, e.getMessage(), e);
+            }
 
-            logger.info("Excel文件分析完成: {}", filename);
-            return result;
+            transactionTemplate.executeWithoutResult(status -> saveDataSetAnalysis(datasetId, analyses));
+            logger.info("Excel文件分析完成: {}，共 {} 个工作表", filename, analyses.size());
+            return analyses;
 
         } catch (Exception e) {
             logger.error("分析Excel文件时发生错误: {}", e.getMessage(), e);
             throw new RuntimeException("分析失败: " + e.getMessage(), e);
         } finally {
+            if (xlsxReader != null) {
+                xlsxReader.close();
+            }
             if (workbook != null) {
                 workbook.close();
             }
         }
     }
 
+    // 更新数据集信息并保存各工作表的分析结果，在transactionTemplate的事务中执行
+    private void saveDataSetAnalysis(Long datasetId, Map<String, SheetAnalysis> analyses) {
+        DataSet dataSet = dataSetRepository.findById(datasetId)
+                .orElseThrow(() -> new IllegalArgumentException("数据集不存在: " + datasetId));
+        SheetAnalysis firstSheet = analyses.values().iterator().next();
+
+        // headers/totalColumns对应第一个工作表
+        dataSet.setTotalRows(analyses.values().stream().mapToInt(a -> a.dataFrame.getRowCount()).sum());
+        dataSet.setTotalColumns(firstSheet.headers.size());
+        dataSet.setHeaders(String.join(",", firstSheet.headers));
+        dataSet.setSheetNames(String.join(",", analyses.keySet()));
+        dataSet.setStatus("ANALYZED");
+        dataSet.setLastAnalyzed(LocalDateTime.now());
+        dataSet = dataSetRepository.save(dataSet);
+        logger.info("数据集已保存，ID: {}", dataSet.getId());
+
+        for (Map.Entry<String, SheetAnalysis> entry : analyses.entrySet()) {
+            saveAnalysisResult(dataSet, entry.getKey(), "STATISTICAL", entry.getValue().statistics);
+            if (entry.getValue().correlation != null) {
+                saveAnalysisResult(dataSet, entry.getKey(), "CORRELATION", entry.getValue().correlation);
+            }
+        }
+    }
+
+    // 同步分析的响应：包含各工作表的行数据和统计结果
+    private DataAnalysisResult buildAnalysisResult(String filename, Map<String, SheetAnalysis> analyses) {
+        Map<String, DataAnalysisResult> sheetResults = new LinkedHashMap<>();
+        for (Map.Entry<String, SheetAnalysis> entry : analyses.entrySet()) {
+            SheetAnalysis analysis = entry.getValue();
+            DataAnalysisResult sheetResult = new DataAnalysisResult(
+                    analysis.dataFrame.asRowMaps(), analysis.headers, filename);
+            sheetResult.setSheetName(entry.getKey());
+            sheetResult.setAdvancedStatistics(analysis.statistics);
+            sheetResult.setCorrelationAnalysis(analysis.correlation);
+            sheetResults.put(entry.getKey(), sheetResult);
+        }
+        if (sheetResults.size() == 1) {
+            return sheetResults.values().iterator().next();
+        }
+
+        // 多个工作表时返回汇总结果，各工作表的明细在sheetResults中
+        DataAnalysisResult result = new DataAnalysisResult();
+        result.setFileName(filename);
+        result.setTotalRows(analyses.values().stream().mapToInt(a -> a.dataFrame.getRowCount()).sum());
+        result.setTotalColumns(sheetResults.values().stream().mapToInt(DataAnalysisResult::getTotalColumns).sum());
+        result.setSheetResults(sheetResults);
+        return result;
+    }
+
     @Cacheable(value = "analysisResults", key = "#datasetId + '_' + #analysisType")
     public AnalysisResult getAnalysisResult(Long datasetId, String analysisType) {
         Optional<DataSet> dataSetOpt = dataSetRepository.findById(datasetId);
@@ -150,7 +347,50 @@ public class ExcelAnalysisService {
         List<AnalysisResult> results = analysisResultRepository.findByDataSetAndAnalysisType(
             dataSetOpt.get(), analysisType);
         
-        return results.isEmpty() ? null : results.get(0);
+        return results.isEmpty() ? null : withResultData(results.get(0));
+    }
+
+    @Cacheable(value = "analysisResults", key = "#datasetId + '_' + #analysisType + '_' + #sheetName")
+    public AnalysisResult getAnalysisResult(Long datasetId, String analysisType, String sheetName) {
+        Optional<DataSet> dataSetOpt = dataSetRepository.findById(datasetId);
+        if (dataSetOpt.isEmpty()) {
+            throw new IllegalArgumentException("数据集不存在: " + datasetId);
+        }
+
+        List<AnalysisResult> results = analysisResultRepository.findByDataSetAndAnalysisTypeAndSheetName(
+            dataSetOpt.get(), analysisType, sheetName);
+        
+        return results.isEmpty() ? null : withResultData(results.get(0));
+    }
+
+    /**
+     * 读取分析结果的一个顶层字段(例如STATISTICAL结果中的一列)，只解码这一字段，不解码整个结果。
+     * sheetName为空时不区分工作表；结果或字段不存在时返回null。
+     */
+    public JsonNode getAnalysisResultField(Long datasetId, String analysisType, String sheetName, String field) {
+        if (!dataSetRepository.existsById(datasetId)) {
+            throw new IllegalArgumentException("数据集不存在: " + datasetId);
+        }
+        List<byte[]> results = sheetName != null
+                ? analysisResultRepository.findResultBinary(datasetId, analysisType, sheetName)
+                : analysisResultRepository.findResultBinary(datasetId, analysisType);
+        if (results.isEmpty() || results.get(0) == null) {
+            return null;
+        }
+        return analysisResultCodec.decodeField(results.get(0), field);
+    }
+
+    // 二进制结果解码为JSON文本后随实体返回
+    private AnalysisResult withResultData(AnalysisResult result) {
+        if (result.getResultData() == null && result.getResultBinary() != null) {
+            try {
+                result.setResultData(objectMapper.writeValueAsString(
+                        analysisResultCodec.decode(result.getResultBinary())));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("解码分析结果失败: " + e.getMessage(), e);
+            }
+        }
+        return result;
     }
 
     public List<DataSet> getAllDataSets() {
@@ -169,6 +409,12 @@ public class ExcelAnalysisService {
     }
 
     public RegressionAnalysis performRegressionAnalysis(Long datasetId, String dependentVar, List<String> independentVars) {
+        return performRegressionAnalysis(datasetId, null, dependentVar, independentVars);
+    }
+
+    // sheetName为空时使用第一个工作表
+    public RegressionAnalysis performRegressionAnalysis(Long datasetId, String sheetName, String dependentVar,
+                                                        List<String> independentVars) {
         logger.info("开始执行回归分析，数据集ID: {}, 因变量: {}", datasetId, dependentVar);
         
         Optional<DataSet> dataSetOpt = dataSetRepository.findById(datasetId);
@@ -177,128 +423,193 @@ public class ExcelAnalysisService {
         }
 
         DataSet dataSet = dataSetOpt.get();
-        
-        // 这里应该从数据集中获取实际数据，为了简化，我们创建模拟数据
-        List<Double> dependentValues = generateMockNumericData(100);
-        Map<String, List<Double>> independentValues = new HashMap<>();
-        
+        DataFrame dataFrame = loadDataFrame(datasetId, sheetName);
+        if (independentVars == null || independentVars.isEmpty()) {
+            throw new IllegalArgumentException("回归分析至少需要一个自变量");
+        }
+
+        Column dependentColumn = requireColumn(dataFrame, dependentVar);
+        List<Column> independentColumns = new ArrayList<>();
         for (String var : independentVars) {
-            independentValues.put(var, generateMockNumericData(100));
+            if (var.equals(dependentVar)) {
+                throw new IllegalArgumentException("自变量不能与因变量相同: " + var);
+            }
+            independentColumns.add(requireColumn(dataFrame, var));
         }
 
         RegressionAnalysis analysis = statisticalAnalysisService.performLinearRegression(
-            dependentValues, independentValues, dependentVar);
+            dependentColumn, independentColumns);
 
-        // 保存分析结果
-        saveAnalysisResult(dataSet, "REGRESSION", analysis);
+        // 替换该工作表之前的回归结果并保存
+        deletePreviousRegressions(dataSet, sheetName);
+        saveAnalysisResult(dataSet, sheetName, "REGRESSION", analysis);
         
         logger.info("回归分析完成");
         return analysis;
     }
 
+    /**
+     * 读取数据集已解析的列数据(来自列存储的内存映射)，sheetName为空时使用第一个工作表。
+     */
+    public DataFrame loadDataFrame(Long datasetId, String sheetName) {
+        DataFrame dataFrame;
+        try {
+            dataFrame = dataSetColumnStore.load(datasetId, sheetName);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取数据集 " + datasetId + " 的列数据失败: " + e.getMessage(), e);
+        }
+        if (dataFrame == null) {
+            throw new IllegalArgumentException(sheetName == null
+                    ? "数据集 " + datasetId + " 的列数据不可用，请重新上传分析"
+                    : "数据集 " + datasetId + " 中不存在工作表: " + sheetName);
+        }
+        return dataFrame;
+    }
+
+    // 将工作表以Arrow IPC流格式写出，供Python/Spark等直接读取，不需要再解析原文件
+    public void exportArrow(DataFrame dataFrame, OutputStream out) throws IOException {
+        ArrowIpcWriter.write(dataFrame, Channels.newChannel(out));
+    }
+
+    private Column requireColumn(DataFrame dataFrame, String name) {
+        Column column = dataFrame.getColumn(name);
+        if (column == null) {
+            throw new IllegalArgumentException("列不存在: " + name);
+        }
+        return column;
+    }
+
+    private SheetAnalysis analyzeSheet(String sheetName, SheetDataCollector collector) throws Exception {
+        SheetAnalysis analysis = new SheetAnalysis();
+        analysis.headers = collector.getHeaders();
+        analysis.dataFrame = collector.getDataFrame();
+        logger.info("工作表 {} 解析完成，共 {} 行", sheetName, analysis.dataFrame.getRowCount());
+
+        // 列统计和相关性分析并发读取同一批列，先在当前线程完成字典解析
+        for (int i = 0; i < analysis.dataFrame.getColumnCount(); i++) {
+            analysis.dataFrame.getColumn(i).parseDictionary();
+        }
+
+        // 相关性分析与各列统计同时提交到ForkJoin线程池
+        Future<CorrelationAnalysis> correlation = columnProfilingPool.submit(
+                () -> performCorrelationAnalysis(analysis.dataFrame, analysis.headers));
+
+        // 执行高级统计分析
+        analysis.statistics = performAdvancedStatisticalAnalysis(analysis.dataFrame, analysis.headers);
+
+        analysis.correlation = await(correlation);
+        return analysis;
+    }
+
     private Map<String, AdvancedColumnStatistics> performAdvancedStatisticalAnalysis(
-            List<Map<String, Object>> data, List<String> headers, DataSet dataSet) {
+            DataFrame dataFrame, List<String> headers) throws Exception {
         
         logger.info("开始执行高级统计分析");
-        Map<String, AdvancedColumnStatistics> statistics = new HashMap<>();
 
+        // 各列在ForkJoin线程池中并行统计，大列再按行区间拆分扫描；结果按列名汇总，与顺序执行一致
+        Map<String, Future<AdvancedColumnStatistics>> futures = new LinkedHashMap<>();
         for (String header : headers) {
-            List<Object> values = data.stream()
-                    .map(row -> row.get(header))
-                    .collect(Collectors.toList());
-
-            AdvancedColumnStatistics stats = statisticalAnalysisService.calculateAdvancedStatistics(values, header);
-            statistics.put(header, stats);
+            Column column = dataFrame.getColumn(header);
+            futures.computeIfAbsent(header, key -> columnProfilingPool.submit(() ->
+                    statisticalAnalysisService.calculateAdvancedStatistics(
+                            column, new ColumnProfileTask(column,
+                                    statisticalAnalysisService.profileOptions(column)).invoke())));
+        }
+        Map<String, AdvancedColumnStatistics> statistics = new HashMap<>();
+        for (Map.Entry<String, Future<AdvancedColumnStatistics>> entry : futures.entrySet()) {
+            statistics.put(entry.getKey(), await(entry.getValue()));
         }
 
-        // 保存统计分析结果
-        saveAnalysisResult(dataSet, "STATISTICAL", statistics);
-        
         logger.info("高级统计分析完成，共分析 {} 个列", headers.size());
         return statistics;
     }
 
-    private CorrelationAnalysis performCorrelationAnalysis(
-            List<Map<String, Object>> data, List<String> headers, DataSet dataSet) {
+    private CorrelationAnalysis performCorrelationAnalysis(DataFrame dataFrame, List<String> headers) {
         
         logger.info("开始执行相关性分析");
         
         // 提取数值列
-        Map<String, List<Double>> numericData = new HashMap<>();
+        List<Column> numericColumns = new ArrayList<>();
         
         for (String header : headers) {
-            List<Double> numericValues = data.stream()
-                    .map(row -> row.get(header))
-                    .filter(Objects::nonNull)
-                    .filter(v -> isNumeric(v.toString()))
-                    .map(v -> Double.parseDouble(v.toString()))
-                    .collect(Collectors.toList());
+            Column column = dataFrame.getColumn(header);
             
-            if (numericValues.size() > data.size() * 0.5) { // 至少50%的数据是数值
-                numericData.put(header, numericValues);
+            if (column.numericCellCount() > dataFrame.getRowCount() * 0.5) { // 至少50%的数据是数值
+                numericColumns.add(column);
             }
         }
 
         CorrelationAnalysis analysis = null;
-        if (numericData.size() >= 2) {
-            analysis = statisticalAnalysisService.performCorrelationAnalysis(numericData, "PEARSON");
-            
-            // 保存相关性分析结果
-            saveAnalysisResult(dataSet, "CORRELATION", analysis);
+        if (numericColumns.size() >= 2) {
+            analysis = statisticalAnalysisService.performColumnCorrelationAnalysis(numericColumns, correlationMethod);
         }
         
-        logger.info("相关性分析完成，涉及 {} 个数值列", numericData.size());
+        logger.info("相关性分析完成，涉及 {} 个数值列", numericColumns.size());
         return analysis;
     }
 
-    private void saveAnalysisResult(DataSet dataSet, String analysisType, Object resultData) {
-        try {
-            AnalysisResult result = new AnalysisResult(dataSet, analysisType);
-            result.setResultData(objectMapper.writeValueAsString(resultData));
-            result.setStatus("SUCCESS");
-            analysisResultRepository.save(result);
-            
-            logger.debug("分析结果已保存: {} - {}", analysisType, dataSet.getId());
-        } catch (JsonProcessingException e) {
-            logger.error("保存分析结果时发生错误: {}", e.getMessage(), e);
+    private List<Integer> selectSheets(List<String> allSheets, List<String> requestedSheets) {
+        if (allSheets.isEmpty()) {
+            throw new IllegalArgumentException("工作簿中没有工作表");
         }
+        List<Integer> indexes = new ArrayList<>();
+        if (requestedSheets == null || requestedSheets.isEmpty()) {
+            for (int i = 0; i < allSheets.size(); i++) {
+                indexes.add(i);
+            }
+            return indexes;
+        }
+        for (String sheetName : requestedSheets) {
+            int index = allSheets.indexOf(sheetName);
+            if (index < 0) {
+                throw new IllegalArgumentException("工作表不存在: " + sheetName);
+            }
+            if (!indexes.contains(index)) {
+                indexes.add(index);
+            }
+        }
+        return indexes;
     }
 
-    
-    private Object getCellValue(Cell cell) {
-        if (cell == null) {
-            return "";
+    private <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // 抛出工作线程中的原始异常
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
         }
+    }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return cell.getNumericCellValue();
-                }
-            case BOOLEAN:
-                return cell.getBooleanCellValue();
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
+    // 删除同一数据集和工作表之前的回归结果及其引用的残差文件
+    private void deletePreviousRegressions(DataSet dataSet, String sheetName) {
+        List<AnalysisResult> previous = analysisResultRepository.findByDataSetAndAnalysisTypeAndSheetName(
+            dataSet, "REGRESSION", sheetName);
+        for (AnalysisResult result : previous) {
+            JsonNode residualsId = result.getResultBinary() == null ? null
+                    : analysisResultCodec.decodeField(result.getResultBinary(), "residualsId");
+            if (residualsId != null && residualsId.isTextual()) {
+                residualStore.delete(residualsId.asText());
+            }
         }
+        analysisResultRepository.deleteAll(previous);
     }
 
-    private String getCellValueAsString(Cell cell) {
-        Object value = getCellValue(cell);
-        return value != null ? value.toString() : "";
+    private void saveAnalysisResult(DataSet dataSet, String analysisType, Object resultData) {
+        saveAnalysisResult(dataSet, null, analysisType, resultData);
     }
 
-    private boolean isNumeric(String str) {
+    private void saveAnalysisResult(DataSet dataSet, String sheetName, String analysisType, Object resultData) {
         try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+            AnalysisResult result = new AnalysisResult(dataSet, analysisType);
+            result.setSheetName(sheetName);
+            result.setResultBinary(analysisResultCodec.encode(objectMapper.valueToTree(resultData)));
+            result.setStatus("SUCCESS");
+            analysisResultRepository.save(result);
+            
+            logger.debug("分析结果已保存: {} - {}, {} 字节", analysisType, dataSet.getId(), result.getResultBinary().length);
+        } catch (IllegalArgumentException e) {
+            logger.error("保存分析结果时发生错误: {}", e.getMessage(), e);
         }
     }
 
@@ -310,8 +621,11 @@ public class ExcelAnalysisService {
         return filename.substring(filename.lastIndexOf(".") + 1);
     }
 
-    private List<Double> generateMockNumericData(int size) {
-        Random random = new Random();
-        return random.doubles(size, 0, 100).boxed().collect(Collectors.toList());
+    // 单个工作表的解析与分析结果
+    private static class SheetAnalysis {
+        private List<String> headers;
+        private DataFrame dataFrame;
+        private Map<String, AdvancedColumnStatistics> statistics;
+        private CorrelationAnalysis correlation;
     }
 }
@@ -0,0 +1,207 @@
+package com.example.excelanalyzer.service;
+
+import com.example.excelanalyzer.model.ResidualPage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 回归残差的列式存储：每次回归的残差按行顺序写成一个小端double列(.f64)和对应行下标的int列(.i32)，
+ * 按residualsId分页读取或原样流式输出，接口响应和分析结果中只保留摘要。
+ * 同一工作表重新回归时旧残差随旧结果删除，超过保留时间的残差文件在创建新残差时清理。
+ */
+@Service
+public class RegressionResidualStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegressionResidualStore.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // 单页最多返回的残差个数
+    public static final int MAX_PAGE_SIZE = 10000;
+
+    @Value("${analyzer.regression.residual-dir:${java.io.tmpdir}/excel-analyzer-residuals}")
+    private String residualDir;
+
+    @Value("${analyzer.regression.residual-ttl-minutes:1440}")
+    private long residualTtlMinutes;
+
+    private Path residualPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        residualPath = Paths.get(residualDir).toAbsolutePath();
+        Files.createDirectories(residualPath);
+        logger.info("回归残差目录: {}", residualPath);
+    }
+
+    public ResidualWriter create() throws IOException {
+        purgeExpiredResiduals();
+        String residualsId = UUID.randomUUID().toString();
+        return new ResidualWriter(residualsId, valuesFile(residualsId), rowsFile(residualsId));
+    }
+
+    public long count(String residualsId) throws IOException {
+        try {
+            return Files.size(valuesFile(residualsId)) / Double.BYTES;
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("残差不存在: " + residualsId);
+        }
+    }
+
+    public ResidualPage readPage(String residualsId, long offset, int limit) throws IOException {
+        if (offset < 0 || limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("分页参数无效: offset=" + offset + ", limit=" + limit);
+        }
+        long total = count(residualsId);
+        int size = (int) Math.max(0, Math.min(limit, total - offset));
+        double[] residuals = new double[size];
+        int[] rows = new int[size];
+        if (size > 0) {
+            read(valuesFile(residualsId), offset * Double.BYTES, size * Double.BYTES)
+                    .asDoubleBuffer().get(residuals);
+            read(rowsFile(residualsId), offset * Integer.BYTES, size * Integer.BYTES)
+                    .asIntBuffer().get(rows);
+        }
+        return new ResidualPage(residualsId, offset, total, rows, residuals);
+    }
+
+    // 将第offset个起的最多limit个残差按小端double原样写入target，不经过堆内缓冲
+    public void transferValues(String residualsId, long offset, long limit, WritableByteChannel target)
+            throws IOException {
+        long total = count(residualsId);
+        long position = Math.min(offset, total) * Double.BYTES;
+        long remaining = Math.max(0, Math.min(limit, total - offset)) * Double.BYTES;
+        try (FileChannel channel = FileChannel.open(valuesFile(residualsId), StandardOpenOption.READ)) {
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    public void delete(String residualsId) {
+        try {
+            Files.deleteIfExists(valuesFile(residualsId));
+            Files.deleteIfExists(rowsFile(residualsId));
+        } catch (IOException e) {
+            logger.warn("删除回归残差失败: {}", residualsId, e);
+        }
+    }
+
+    private void purgeExpiredResiduals() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(residualTtlMinutes));
+        int purged = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(residualPath, "*.{f64,i32}")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("清理过期回归残差失败: {}", residualPath, e);
+        }
+        if (purged > 0) {
+            logger.info("已删除 {} 个过期的回归残差文件", purged);
+        }
+    }
+
+    private ByteBuffer read(Path file, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("残差文件不完整: " + file);
+                }
+            }
+        }
+        return buffer.flip();
+    }
+
+    // residualsId只接受UUID，防止拼出暂存目录之外的路径
+    private Path valuesFile(String residualsId) {
+        return residualPath.resolve(UUID.fromString(residualsId) + ".f64");
+    }
+
+    private Path rowsFile(String residualsId) {
+        return residualPath.resolve(UUID.fromString(residualsId) + ".i32");
+    }
+
+    /**
+     * 按行顺序追加残差，数据经固定大小的缓冲区写入文件，内存占用与残差个数无关。
+     * 写入在回调中进行，I/O错误以 {@link UncheckedIOException} 抛出。
+     */
+    public static class ResidualWriter implements Closeable {
+
+        private final String residualsId;
+        private final FileChannel values;
+        private final FileChannel rows;
+        private final ByteBuffer valueBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer rowBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE / 2).order(ByteOrder.LITTLE_ENDIAN);
+
+        private ResidualWriter(String residualsId, Path valuesFile, Path rowsFile) throws IOException {
+            this.residualsId = residualsId;
+            this.values = FileChannel.open(valuesFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.rows = FileChannel.open(rowsFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        public String getResidualsId() { return residualsId; }
+
+        public void write(int row, double residual) {
+            if (!valueBuffer.hasRemaining()) {
+                flush();
+            }
+            valueBuffer.putDouble(residual);
+            rowBuffer.putInt(row);
+        }
+
+        private void flush() {
+            try {
+                drain(valueBuffer, values);
+                drain(rowBuffer, rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                values.close();
+                rows.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.excelanalyzer.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * 上传文件落盘管理：上传内容直接转存到受管的暂存目录，后续解析通过文件随机访问读取，
+ * 不在堆内保留整个文件的副本。
+ */
+@Service
+public class UploadSpoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSpoolService.class);
+
+    @Value("${analyzer.spool.dir:${java.io.tmpdir}/excel-analyzer-spool}")
+    private String spoolDir;
+
+    private Path spoolPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        spoolPath = Paths.get(spoolDir).toAbsolutePath();
+        Files.createDirectories(spoolPath);
+        logger.info("上传暂存目录: {}", spoolPath);
+    }
+
+    // 保留原始扩展名，读取器按扩展名选择解析方式
+    public Path spool(MultipartFile file) throws IOException {
+        Path target = newSpoolFile(file.getOriginalFilename());
+        // 容器已落盘的上传部件会直接移动到暂存目录，否则按流复制
+        file.transferTo(target.toFile());
+        logger.debug("上传文件已暂存: {} -> {}", file.getOriginalFilename(), target);
+        return target;
+    }
+
+    public Path newSpoolFile(String originalFilename) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.lastIndexOf('.') >= 0) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf('.'));
+        }
+        return spoolPath.resolve(UUID.randomUUID() + extension);
+    }
+
+    public void release(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除暂存文件失败: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * 统计计算内层循环的数组运算：求和、中心矩、最小/最大值、点积。
+ * 默认使用标量实现；开启后在支持的JVM上使用jdk.incubator.vector的SIMD实现，
+ * 两者只在浮点舍入上有差别(累加顺序不同)。所有区间均为[from, to)。
+ */
+public interface ArrayKernels {
+
+    ArrayKernels SCALAR = new ScalarKernels();
+
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    // 向量实现只在 -Pvector 构建时编译，按类名加载
+    String VECTOR_KERNELS_CLASS = "com.example.excelanalyzer.stats.VectorKernels";
+
+    /**
+     * 请求向量实现时，只有以 -Pvector 构建且JVM以 --add-modules jdk.incubator.vector 启动才可用，
+     * 否则返回标量实现。
+     */
+    static ArrayKernels select(boolean vector) {
+        if (vector && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (ArrayKernels) Class.forName(VECTOR_KERNELS_CLASS).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                return SCALAR;
+            }
+        }
+        return SCALAR;
+    }
+
+    String getName();
+
+    double sum(double[] values, int from, int to);
+
+    // 相对给定均值的二、三、四阶中心矩之和，依次写入moments[0..2]
+    void centralMoments(double[] values, int from, int to, double mean, double[] moments);
+
+    // 忽略NaN的最小值，全部为NaN或区间为空时返回NaN
+    double min(double[] values, int from, int to);
+
+    // 忽略NaN的最大值，全部为NaN或区间为空时返回NaN
+    double max(double[] values, int from, int to);
+
+    double dot(double[] x, double[] y, int from, int to);
+
+    // target = values - mean，返回差值的平方和
+    double center(double[] values, double mean, double[] target, int from, int to);
+
+    void scale(double[] values, double factor, int from, int to);
+}
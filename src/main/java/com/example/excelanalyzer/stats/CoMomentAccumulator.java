@@ -0,0 +1,150 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * 多个变量的均值与两两协同矩(离差乘积之和)。可以逐行累加(Welford)，也可以按块两遍法累加后
+ * 与已有结果合并(Chan等人的并行公式)，因此能在流式读取或分区并行计算时使用，
+ * 最终得到协方差矩阵和皮尔逊相关系数矩阵。协同矩只保存上三角(含对角线)。
+ */
+public class CoMomentAccumulator {
+
+    private final int size;
+    private long count;
+    private final double[] means;
+    private final double[] coMoments;
+    private final double[] deltas;
+
+    public CoMomentAccumulator(int size) {
+        this.size = size;
+        this.means = new double[size];
+        this.coMoments = new double[size * (size + 1) / 2];
+        this.deltas = new double[size];
+    }
+
+    public int size() { return size; }
+
+    public long getCount() { return count; }
+
+    // 累加一行，各变量的值依次排列
+    public void add(double[] row) {
+        count++;
+        for (int i = 0; i < size; i++) {
+            deltas[i] = row[i] - means[i];
+            means[i] += deltas[i] / count;
+        }
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = i; j < size; j++) {
+                coMoments[index++] += deltas[i] * (row[j] - means[j]);
+            }
+        }
+    }
+
+    /**
+     * 累加一个行块：columns[i]的前rows个值为第i个变量。块内先求均值，再用中心化后的点积求协同矩，
+     * 最后合并到当前结果。centered为调用方提供的与columns同形状的缓冲区。
+     */
+    public void addBlock(double[][] columns, double[][] centered, int rows, ArrayKernels kernels) {
+        if (rows == 0) {
+            return;
+        }
+        CoMomentAccumulator block = new CoMomentAccumulator(size);
+        block.count = rows;
+        for (int i = 0; i < size; i++) {
+            block.means[i] = kernels.sum(columns[i], 0, rows) / rows;
+            kernels.center(columns[i], block.means[i], centered[i], 0, rows);
+        }
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = i; j < size; j++) {
+                block.coMoments[index++] = kernels.dot(centered[i], centered[j], 0, rows);
+            }
+        }
+        merge(block);
+    }
+
+    public void merge(CoMomentAccumulator other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("变量个数不一致，无法合并: " + size + " / " + other.size);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            System.arraycopy(other.means, 0, means, 0, size);
+            System.arraycopy(other.coMoments, 0, coMoments, 0, coMoments.length);
+            return;
+        }
+        double na = count;
+        double nb = other.count;
+        double total = na + nb;
+        for (int i = 0; i < size; i++) {
+            deltas[i] = other.means[i] - means[i];
+        }
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = i; j < size; j++) {
+                coMoments[index] += other.coMoments[index] + deltas[i] * deltas[j] * na * nb / total;
+                index++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            means[i] += deltas[i] * nb / total;
+        }
+        count += other.count;
+    }
+
+    public double getMean(int i) {
+        return count == 0 ? Double.NaN : means[i];
+    }
+
+    // 样本协方差(n-1)，不足2行时为NaN
+    public double getCovariance(int i, int j) {
+        return count < 2 ? Double.NaN : coMoment(i, j) / (count - 1);
+    }
+
+    /**
+     * 皮尔逊相关系数，与 {@link CorrelationMatrix} 一致：常数列或含NaN的变量与任何变量的相关系数为NaN，
+     * 对角线为1，舍入误差不会使结果超出[-1, 1]。
+     */
+    public double getCorrelation(int i, int j) {
+        double xx = coMoment(i, i);
+        double yy = coMoment(j, j);
+        if (count < 2 || !(xx > 0) || !(yy > 0) || Double.isInfinite(xx) || Double.isInfinite(yy)) {
+            return Double.NaN;
+        }
+        if (i == j) {
+            return 1.0;
+        }
+        return Math.max(-1.0, Math.min(1.0, coMoment(i, j) / Math.sqrt(xx * yy)));
+    }
+
+    public double[][] correlationMatrix() {
+        double[][] result = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i; j < size; j++) {
+                result[i][j] = result[j][i] = getCorrelation(i, j);
+            }
+        }
+        return result;
+    }
+
+    public double[][] covarianceMatrix() {
+        double[][] result = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i; j < size; j++) {
+                result[i][j] = result[j][i] = getCovariance(i, j);
+            }
+        }
+        return result;
+    }
+
+    private double coMoment(int i, int j) {
+        if (i > j) {
+            int swap = i;
+            i = j;
+            j = swap;
+        }
+        return coMoments[i * size - i * (i - 1) / 2 + (j - i)];
+    }
+}
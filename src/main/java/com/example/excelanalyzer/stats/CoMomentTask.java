@@ -0,0 +1,106 @@
+package com.example.excelanalyzer.stats;
+
+import com.example.excelanalyzer.dataframe.Column;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 在ForkJoin线程池中按行区间并行累加多列的协同矩，直接读取列数据，不复制整列。
+ * 行区间按 {@link ColumnProfile#BLOCK_ROWS} 对齐拆分、按行顺序合并，结果与线程数无关。
+ * 只统计所有列都是数值的行(与各列数值个数相同时逐行对应的结果一致)。
+ */
+public class CoMomentTask extends RecursiveTask<CoMomentAccumulator> {
+
+    // 块内按该行数分段中心化，缓冲区为列数 x 该行数个double
+    static final int CHUNK_ROWS = 2048;
+
+    private final List<Column> columns;
+    private final int fromRow;
+    private final int toRow;
+    private final ArrayKernels kernels;
+
+    public CoMomentTask(List<Column> columns, ArrayKernels kernels) {
+        this(columns, 0, columns.isEmpty() ? 0 : columns.get(0).size(), kernels);
+        for (Column column : columns) {
+            column.parseDictionary();
+        }
+    }
+
+    private CoMomentTask(List<Column> columns, int fromRow, int toRow, ArrayKernels kernels) {
+        this.columns = columns;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.kernels = kernels;
+    }
+
+    @Override
+    protected CoMomentAccumulator compute() {
+        if (toRow - fromRow <= ColumnProfile.BLOCK_ROWS) {
+            return scanBlock();
+        }
+        int middle = ColumnProfile.splitPoint(fromRow, toRow);
+        CoMomentTask left = new CoMomentTask(columns, fromRow, middle, kernels);
+        left.fork();
+        CoMomentAccumulator right = new CoMomentTask(columns, middle, toRow, kernels).compute();
+        CoMomentAccumulator moments = left.join();
+        moments.merge(right);
+        return moments;
+    }
+
+    private CoMomentAccumulator scanBlock() {
+        int size = columns.size();
+        CoMomentAccumulator moments = new CoMomentAccumulator(size);
+        double[][] chunk = new double[size][CHUNK_ROWS];
+        double[][] centered = new double[size][CHUNK_ROWS];
+        int rows = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            if (!readRow(columns, row, chunk, rows)) {
+                continue;
+            }
+            if (++rows == CHUNK_ROWS) {
+                moments.addBlock(chunk, centered, rows, kernels);
+                rows = 0;
+            }
+        }
+        moments.addBlock(chunk, centered, rows, kernels);
+        return moments;
+    }
+
+    // 只保留所有列都是数值的行(与协同矩统计的行相同)，按行顺序返回各列的值
+    public static double[][] completeRows(List<Column> columns) {
+        int size = columns.isEmpty() ? 0 : columns.get(0).size();
+        for (Column column : columns) {
+            column.parseDictionary();
+        }
+        double[][] values = new double[columns.size()][size];
+        int rows = 0;
+        for (int row = 0; row < size; row++) {
+            if (readRow(columns, row, values, rows)) {
+                rows++;
+            }
+        }
+        if (rows < size) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Arrays.copyOf(values[i], rows);
+            }
+        }
+        return values;
+    }
+
+    // 读取一行到chunk的第offset个位置，任一列不是数值时返回false
+    static boolean readRow(List<Column> columns, int row, double[][] chunk, int offset) {
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            if (column.isNumber(row)) {
+                chunk[i][offset] = column.getDouble(row);
+            } else if (!column.isNull(row) && column.isNumericEntry(column.getCode(row))) {
+                chunk[i][offset] = column.numericEntryValue(column.getCode(row));
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+}
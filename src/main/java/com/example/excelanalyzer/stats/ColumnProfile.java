@@ -0,0 +1,337 @@
+package com.example.excelanalyzer.stats;
+
+import com.example.excelanalyzer.dataframe.Column;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 单列的一次扫描概要：空值数、字典项出现次数、数值的各阶中心矩、最小/最大值，
+ * 数值单元格的不同值计数，以及按行顺序保存的全部数值(精确模式)或数值的分位数草图(草图模式)。
+ * 同一列相邻行区间的概要可按行顺序合并。
+ */
+public class ColumnProfile {
+
+    // 大列按固定行数分块扫描，再按固定的二分顺序合并；并行扫描使用同样的切分，结果逐位一致
+    public static final int BLOCK_ROWS = 65536;
+
+    private final Column column;
+    private int rowCount;
+    private int nullCount;
+
+    // 字典项出现次数：字典比分块还大时(如ID类文本列)分块只用稀疏计数，避免每块分配整个字典长度的数组
+    private final int dictionarySize;
+    private int[] dictionaryCounts;
+    private IntIntHashMap sparseDictionaryCounts;
+
+    // 数值(数值单元格及可解析为数值的文本)的各阶中心矩
+    private long n;
+    private double mean;
+    private double m2;
+    private double m3;
+    private double m4;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    // 精确模式按行顺序保存的数值，entryValues 标记其中来自文本字典项的位置
+    private double[] values;
+    private int valueCount;
+    private final BitSet entryValues = new BitSet();
+
+    // 草图模式下只保存分位数草图，内存与行数无关
+    private KllQuantileSketch quantileSketch;
+
+    // 数值单元格按位模式计数(与Double.equals一致)，文本等其余值由列字典保证唯一
+    private DistinctCounter distinctNumberCells;
+
+    private double[] sortedValues;
+    private double[] sortedNumberCells;
+
+    private ColumnProfile(Column column) {
+        this.column = column;
+        this.dictionarySize = column.getDictionary().size();
+    }
+
+    public static ColumnProfile scan(Column column) {
+        return scan(column, ProfileOptions.EXACT);
+    }
+
+    public static ColumnProfile scan(Column column, ProfileOptions options) {
+        column.parseDictionary();
+        return scan(column, 0, column.size(), options);
+    }
+
+    private static ColumnProfile scan(Column column, int fromRow, int toRow, ProfileOptions options) {
+        if (toRow - fromRow <= BLOCK_ROWS) {
+            return scanBlock(column, fromRow, toRow, options);
+        }
+        int middle = splitPoint(fromRow, toRow);
+        ColumnProfile profile = scan(column, fromRow, middle, options);
+        profile.merge(scan(column, middle, toRow, options));
+        return profile;
+    }
+
+    // 切分点对齐到分块边界，左半部分取一半(向下取整)的分块
+    static int splitPoint(int fromRow, int toRow) {
+        int blocks = (toRow - fromRow + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        return fromRow + (blocks / 2) * BLOCK_ROWS;
+    }
+
+    static ColumnProfile scanBlock(Column column, int fromRow, int toRow, ProfileOptions options) {
+        ColumnProfile profile = new ColumnProfile(column);
+        profile.rowCount = toRow - fromRow;
+        if (profile.dictionarySize > profile.rowCount) {
+            profile.sparseDictionaryCounts = new IntIntHashMap();
+        } else {
+            profile.dictionaryCounts = new int[profile.dictionarySize];
+        }
+        profile.distinctNumberCells = new DistinctCounter(options.getExactDistinctLimit(), options.getHllPrecision());
+        if (options.isQuantileSketch()) {
+            profile.quantileSketch = new KllQuantileSketch(options.getQuantileSketchK());
+        } else {
+            profile.values = new double[profile.rowCount];
+        }
+        // 块内数值先收集到数组，扫描结束后由数组运算计算各阶矩；草图模式只在本块内临时使用
+        double[] blockValues = profile.values != null ? profile.values : new double[profile.rowCount];
+
+        for (int row = fromRow; row < toRow; row++) {
+            double value;
+            if (column.isNull(row)) {
+                profile.nullCount++;
+                continue;
+            }
+            if (column.isNumber(row)) {
+                value = column.getDouble(row);
+                profile.distinctNumberCells.add(Double.doubleToLongBits(value));
+            } else {
+                int code = column.getCode(row);
+                if (profile.dictionaryCounts != null) {
+                    profile.dictionaryCounts[code]++;
+                } else {
+                    profile.sparseDictionaryCounts.addTo(code, 1);
+                }
+                if (!column.isNumericEntry(code)) {
+                    continue;
+                }
+                value = column.numericEntryValue(code);
+                if (profile.values != null) {
+                    profile.entryValues.set(profile.valueCount);
+                }
+            }
+            blockValues[profile.valueCount++] = value;
+            if (profile.quantileSketch != null) {
+                profile.quantileSketch.update(value);
+            }
+        }
+        profile.computeMoments(blockValues, options.getKernels());
+        return profile;
+    }
+
+    // 两遍法：先求均值，再累加各阶中心矩；最小/最大值与commons-math的Min/Max一致，忽略NaN
+    private void computeMoments(double[] blockValues, ArrayKernels kernels) {
+        n = valueCount;
+        if (n == 0) {
+            return;
+        }
+        mean = kernels.sum(blockValues, 0, valueCount) / n;
+        double[] moments = new double[3];
+        kernels.centralMoments(blockValues, 0, valueCount, mean, moments);
+        m2 = moments[0];
+        m3 = moments[1];
+        m4 = moments[2];
+        min = kernels.min(blockValues, 0, valueCount);
+        max = kernels.max(blockValues, 0, valueCount);
+    }
+
+    // 合并紧随其后的行区间的概要
+    public void merge(ColumnProfile following) {
+        if (following.n > 0) {
+            mergeMoments(following);
+        }
+
+        mergeDictionaryCounts(following);
+
+        distinctNumberCells.merge(following.distinctNumberCells);
+        if (quantileSketch != null) {
+            quantileSketch.merge(following.quantileSketch);
+        } else {
+            if (values.length < valueCount + following.valueCount) {
+                values = Arrays.copyOf(values, valueCount + following.valueCount);
+            }
+            System.arraycopy(following.values, 0, values, valueCount, following.valueCount);
+            for (int i = following.entryValues.nextSetBit(0); i >= 0; i = following.entryValues.nextSetBit(i + 1)) {
+                entryValues.set(valueCount + i);
+            }
+        }
+        valueCount += following.valueCount;
+
+        rowCount += following.rowCount;
+        nullCount += following.nullCount;
+        sortedValues = null;
+        sortedNumberCells = null;
+    }
+
+    private void mergeDictionaryCounts(ColumnProfile following) {
+        if (dictionaryCounts == null && following.dictionaryCounts == null) {
+            following.sparseDictionaryCounts.forEach(sparseDictionaryCounts::addTo);
+            // 稀疏计数超过字典的四分之一时改用数组
+            if (sparseDictionaryCounts.size() * 4L > dictionarySize) {
+                densifyDictionaryCounts();
+            }
+            return;
+        }
+        densifyDictionaryCounts();
+        if (following.dictionaryCounts != null) {
+            for (int code = 0; code < following.dictionaryCounts.length; code++) {
+                dictionaryCounts[code] += following.dictionaryCounts[code];
+            }
+        } else {
+            following.sparseDictionaryCounts.forEach((code, count) -> dictionaryCounts[code] += count);
+        }
+    }
+
+    private void densifyDictionaryCounts() {
+        if (dictionaryCounts == null) {
+            int[] counts = new int[dictionarySize];
+            sparseDictionaryCounts.forEach((code, count) -> counts[code] += count);
+            dictionaryCounts = counts;
+            sparseDictionaryCounts = null;
+        }
+    }
+
+    private void mergeMoments(ColumnProfile other) {
+        if (n == 0) {
+            n = other.n;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        double na = n;
+        double nb = other.n;
+        double total = na + nb;
+        double delta = other.mean - mean;
+        double delta2 = delta * delta;
+        double mergedM4 = m4 + other.m4
+                + delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (total * total * total)
+                + 6 * delta2 * (na * na * other.m2 + nb * nb * m2) / (total * total)
+                + 4 * delta * (na * other.m3 - nb * m3) / total;
+        double mergedM3 = m3 + other.m3
+                + delta2 * delta * na * nb * (na - nb) / (total * total)
+                + 3 * delta * (na * other.m2 - nb * m2) / total;
+        m2 = m2 + other.m2 + delta2 * na * nb / total;
+        m3 = mergedM3;
+        m4 = mergedM4;
+        mean += delta * nb / total;
+        n += other.n;
+
+        if (other.min < min || Double.isNaN(min)) {
+            min = other.min;
+        }
+        if (other.max > max || Double.isNaN(max)) {
+            max = other.max;
+        }
+    }
+
+    public int getRowCount() { return rowCount; }
+
+    public int getNullCount() { return nullCount; }
+
+    public int getNumericCount() { return valueCount; }
+
+    // 各字典项(非数值单元格)出现的次数
+    public int[] getDictionaryCounts() {
+        densifyDictionaryCounts();
+        return dictionaryCounts;
+    }
+
+    public double getMean() { return n == 0 ? Double.NaN : mean; }
+
+    public double getMin() { return min; }
+
+    public double getMax() { return max; }
+
+    // 样本方差(n-1)，单个值时为0
+    public double getVariance() {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        return n == 1 ? 0.0 : m2 / (n - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    // 样本偏度，公式与commons-math的Skewness一致
+    public double getSkewness() {
+        if (n < 3) {
+            return Double.NaN;
+        }
+        double variance = m2 / (n - 1);
+        double n0 = n;
+        return (n0 / ((n0 - 1) * (n0 - 2))) * (m3 / (variance * Math.sqrt(variance)));
+    }
+
+    // 样本超额峰度，公式与commons-math的Kurtosis一致
+    public double getKurtosis() {
+        if (n <= 3) {
+            return Double.NaN;
+        }
+        double variance = m2 / (n - 1);
+        double n0 = n;
+        double coefficientOne = (n0 * (n0 + 1)) / ((n0 - 1) * (n0 - 2) * (n0 - 3));
+        double termTwo = (3 * Math.pow(n0 - 1, 2.0)) / ((n0 - 2) * (n0 - 3));
+        return coefficientOne * (m4 / (variance * variance)) - termTwo;
+    }
+
+    // 数值单元格(不含可解析为数值的文本)的不同值计数
+    public DistinctCounter getDistinctNumberCells() { return distinctNumberCells; }
+
+    // 草图模式下的分位数草图，精确模式为null
+    public KllQuantileSketch getQuantileSketch() { return quantileSketch; }
+
+    // 按行顺序的全部数值；草图模式下从列数据重新提取
+    public double[] getValues() {
+        if (values == null) {
+            return column.toNumericArray();
+        }
+        if (values.length != valueCount) {
+            values = Arrays.copyOf(values, valueCount);
+        }
+        return values;
+    }
+
+    // 升序排列的全部数值，NaN排在最后
+    public double[] getSortedValues() {
+        if (sortedValues == null) {
+            sortedValues = getValues().clone();
+            Arrays.sort(sortedValues);
+        }
+        return sortedValues;
+    }
+
+    // 升序排列的数值单元格(不含可解析为数值的文本)
+    public double[] getSortedNumberCells() {
+        if (sortedNumberCells == null) {
+            if (values == null) {
+                sortedNumberCells = column.numberValues();
+                Arrays.sort(sortedNumberCells);
+            } else if (entryValues.isEmpty()) {
+                sortedNumberCells = getSortedValues();
+            } else {
+                double[] cells = new double[valueCount - entryValues.cardinality()];
+                int count = 0;
+                for (int i = entryValues.nextClearBit(0); i < valueCount; i = entryValues.nextClearBit(i + 1)) {
+                    cells[count++] = values[i];
+                }
+                Arrays.sort(cells);
+                sortedNumberCells = cells;
+            }
+        }
+        return sortedNumberCells;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.excelanalyzer.stats;
+
+import com.example.excelanalyzer.dataframe.Column;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 在ForkJoin线程池中并行扫描单列：按 {@link ColumnProfile#BLOCK_ROWS} 对齐的行区间递归拆分，
+ * 子区间的概要按行顺序合并，结果与 {@link ColumnProfile#scan(Column, ProfileOptions)} 完全相同。
+ */
+public class ColumnProfileTask extends RecursiveTask<ColumnProfile> {
+
+    private final Column column;
+    private final int fromRow;
+    private final int toRow;
+    private final ProfileOptions options;
+
+    public ColumnProfileTask(Column column, ProfileOptions options) {
+        this(column, 0, column.size(), options);
+        column.parseDictionary();
+    }
+
+    private ColumnProfileTask(Column column, int fromRow, int toRow, ProfileOptions options) {
+        this.column = column;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.options = options;
+    }
+
+    @Override
+    protected ColumnProfile compute() {
+        if (toRow - fromRow <= ColumnProfile.BLOCK_ROWS) {
+            return ColumnProfile.scanBlock(column, fromRow, toRow, options);
+        }
+        int middle = ColumnProfile.splitPoint(fromRow, toRow);
+        ColumnProfileTask left = new ColumnProfileTask(column, fromRow, middle, options);
+        left.fork();
+        ColumnProfile right = new ColumnProfileTask(column, middle, toRow, options).compute();
+        ColumnProfile profile = left.join();
+        profile.merge(right);
+        return profile;
+    }
+}
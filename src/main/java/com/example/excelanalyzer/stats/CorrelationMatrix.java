@@ -0,0 +1,104 @@
+package com.example.excelanalyzer.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 皮尔逊相关系数矩阵：每列只中心化并缩放为单位长度一次，两列的相关系数即标准化后的点积。
+ * 只计算上三角，按 {@link #TILE_COLUMNS} 列一组划分为瓦片，在ForkJoin线程池中并行计算；
+ * 瓦片内按 {@link #ROW_CHUNK} 行分段累加，使参与计算的两组列段留在缓存中。
+ * 每个元素的累加顺序固定，结果与线程数无关；点积等数组运算由 {@link ArrayKernels} 完成。
+ */
+public class CorrelationMatrix {
+
+    public static final int TILE_COLUMNS = 32;
+    public static final int ROW_CHUNK = 2048;
+
+    private final double[][] standardized;
+    private final int rows;
+    private final double[][] result;
+    private final ArrayKernels kernels;
+
+    private CorrelationMatrix(int columnCount, int rows, ArrayKernels kernels) {
+        this.standardized = new double[columnCount][];
+        this.rows = rows;
+        this.kernels = kernels;
+        this.result = new double[columnCount][columnCount];
+    }
+
+    /**
+     * 计算各列两两之间的皮尔逊相关系数，返回对称矩阵。与commons-math的PearsonsCorrelation一致：
+     * 各列长度必须相同且至少为2；常数列或含NaN的列与任何列(包括自身)的相关系数为NaN。
+     */
+    public static double[][] pearson(double[][] columns, ForkJoinPool pool, ArrayKernels kernels) {
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        for (double[] column : columns) {
+            if (column.length != rows) {
+                throw new IllegalArgumentException("相关性分析要求各列数值个数相同: " + rows + " / " + column.length);
+            }
+        }
+        if (columns.length > 0 && rows < 2) {
+            throw new IllegalArgumentException("相关性分析至少需要2行数据: " + rows);
+        }
+
+        CorrelationMatrix matrix = new CorrelationMatrix(columns.length, rows, kernels);
+        pool.invoke(new RangeTask(0, columns.length, i -> matrix.standardize(i, columns[i])));
+
+        // 上三角瓦片(行块 <= 列块)逐个编号，按编号区间并行
+        int blocks = (columns.length + TILE_COLUMNS - 1) / TILE_COLUMNS;
+        int[] tileRows = new int[blocks * (blocks + 1) / 2];
+        int[] tileColumns = new int[tileRows.length];
+        int tile = 0;
+        for (int bi = 0; bi < blocks; bi++) {
+            for (int bj = bi; bj < blocks; bj++) {
+                tileRows[tile] = bi;
+                tileColumns[tile++] = bj;
+            }
+        }
+        pool.invoke(new RangeTask(0, tileRows.length, t -> matrix.computeTile(tileRows[t], tileColumns[t])));
+        return matrix.result;
+    }
+
+    // 两遍法：先求均值，再减去均值并除以离差平方和的平方根；无法标准化的列整列置为NaN
+    private void standardize(int index, double[] values) {
+        double mean = kernels.sum(values, 0, rows) / rows;
+        double[] z = new double[rows];
+        double sumSquares = kernels.center(values, mean, z, 0, rows);
+        if (sumSquares > 0 && !Double.isInfinite(sumSquares)) {
+            kernels.scale(z, 1 / Math.sqrt(sumSquares), 0, rows);
+        } else {
+            Arrays.fill(z, Double.NaN);
+        }
+        standardized[index] = z;
+    }
+
+    private void computeTile(int blockRow, int blockColumn) {
+        int iFrom = blockRow * TILE_COLUMNS;
+        int iTo = Math.min(iFrom + TILE_COLUMNS, standardized.length);
+        int jFrom = blockColumn * TILE_COLUMNS;
+        int jTo = Math.min(jFrom + TILE_COLUMNS, standardized.length);
+        double[][] sums = new double[iTo - iFrom][jTo - jFrom];
+
+        for (int rowFrom = 0; rowFrom < rows; rowFrom += ROW_CHUNK) {
+            int rowTo = Math.min(rowFrom + ROW_CHUNK, rows);
+            for (int i = iFrom; i < iTo; i++) {
+                double[] x = standardized[i];
+                for (int j = Math.max(jFrom, i + 1); j < jTo; j++) {
+                    sums[i - iFrom][j - jFrom] += kernels.dot(x, standardized[j], rowFrom, rowTo);
+                }
+            }
+        }
+
+        for (int i = iFrom; i < iTo; i++) {
+            if (i >= jFrom) {
+                result[i][i] = Double.isNaN(standardized[i][0]) ? Double.NaN : 1.0;
+            }
+            for (int j = Math.max(jFrom, i + 1); j < jTo; j++) {
+                // 舍入误差可能使结果略微超出[-1, 1]
+                double correlation = Math.max(-1.0, Math.min(1.0, sums[i - iFrom][j - jFrom]));
+                result[i][j] = correlation;
+                result[j][i] = correlation;
+            }
+        }
+    }
+}
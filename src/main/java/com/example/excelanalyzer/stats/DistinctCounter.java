@@ -0,0 +1,54 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * 可合并的不同值计数：不同值个数不超过exactLimit时用哈希集合精确计数，超过后转为HyperLogLog估计，
+ * 内存不再随基数增长。值以long表示(double取其位模式)。
+ */
+public class DistinctCounter {
+
+    private final int exactLimit;
+    private final int precision;
+    private LongHashSet exact = new LongHashSet();
+    private HyperLogLog sketch;
+
+    public DistinctCounter(int exactLimit, int precision) {
+        this.exactLimit = exactLimit;
+        this.precision = precision;
+    }
+
+    public void add(long value) {
+        if (sketch != null) {
+            sketch.add(value);
+        } else if (exact.add(value) && exact.size() > exactLimit) {
+            switchToSketch();
+        }
+    }
+
+    public void merge(DistinctCounter other) {
+        if (other.sketch != null) {
+            if (sketch == null) {
+                switchToSketch();
+            }
+            sketch.merge(other.sketch);
+        } else {
+            other.exact.forEach(this::add);
+        }
+    }
+
+    public long count() {
+        return sketch != null ? sketch.estimate() : exact.size();
+    }
+
+    public boolean isEstimated() { return sketch != null; }
+
+    // 估计值的相对标准误差，精确计数时为0
+    public double getRelativeError() {
+        return sketch != null ? sketch.getRelativeError() : 0.0;
+    }
+
+    private void switchToSketch() {
+        sketch = new HyperLogLog(precision);
+        exact.forEach(sketch::add);
+        exact = null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * double到int计数的开放寻址哈希表，不装箱。键按位模式比较，与Double.equals一致：
+ * 所有NaN视为同一个键，0.0与-0.0是不同的键。
+ */
+public class DoubleIntHashMap {
+
+    private final LongIntHashMap map;
+
+    public DoubleIntHashMap() {
+        map = new LongIntHashMap();
+    }
+
+    public DoubleIntHashMap(int expectedSize) {
+        map = new LongIntHashMap(expectedSize);
+    }
+
+    // 加上delta并返回新值，不存在时视为0
+    public int addTo(double key, int delta) {
+        return map.addTo(Double.doubleToLongBits(key), delta);
+    }
+
+    public int get(double key, int defaultValue) {
+        return map.get(Double.doubleToLongBits(key), defaultValue);
+    }
+
+    public int size() { return map.size(); }
+
+    public interface Entry {
+        void accept(double key, int value);
+    }
+
+    public void forEach(Entry action) {
+        map.forEach((bits, value) -> action.accept(Double.longBitsToDouble(bits), value));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.excelanalyzer.stats;
+
+import com.example.excelanalyzer.dataframe.ColumnRanks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Kendall tau-b相关系数，Knight的O(n log n)算法：按x排序(x相同再按y)后，对y序列做归并排序，
+ * 归并时的交换次数即不一致对数。x的排序直接使用缓存的 {@link ColumnRanks}，每对列只需对y的紧凑秩归并一次。
+ * 结果与commons-math的KendallsCorrelation一致。
+ */
+public class KendallsTau {
+
+    private KendallsTau() {
+    }
+
+    public static double tauB(ColumnRanks x, ColumnRanks y) {
+        int n = x.size();
+        if (y.size() != n) {
+            throw new IllegalArgumentException("相关性分析要求各列数值个数相同: " + n + " / " + y.size());
+        }
+        long pairs = (long) n * (n - 1) / 2;
+        int[] xOrder = x.getOrder();
+        int[] xRanks = x.getDenseRanks();
+        int[] yRanks = y.getDenseRanks();
+
+        // 按x排列的y秩，x相同的区段内再按y升序，同时统计x、y都相同的行对
+        int[] sequence = new int[n];
+        for (int k = 0; k < n; k++) {
+            sequence[k] = yRanks[xOrder[k]];
+        }
+        long tiedBoth = 0;
+        for (int start = 0; start < n; ) {
+            int end = start + 1;
+            while (end < n && xRanks[xOrder[end]] == xRanks[xOrder[start]]) {
+                end++;
+            }
+            if (end - start > 1) {
+                Arrays.sort(sequence, start, end);
+                for (int run = start; run < end; ) {
+                    int runEnd = run + 1;
+                    while (runEnd < end && sequence[runEnd] == sequence[run]) {
+                        runEnd++;
+                    }
+                    long ties = runEnd - run;
+                    tiedBoth += ties * (ties - 1) / 2;
+                    run = runEnd;
+                }
+            }
+            start = end;
+        }
+
+        long discordant = countInversions(sequence);
+        long concordantMinusDiscordant = pairs - x.getTiedPairs() - y.getTiedPairs() + tiedBoth - 2 * discordant;
+        double nonTiedPairs = (double) (pairs - x.getTiedPairs()) * (pairs - y.getTiedPairs());
+        return concordantMinusDiscordant / Math.sqrt(nonTiedPairs);
+    }
+
+    /**
+     * 各列两两之间的tau-b，返回对称矩阵；各对在ForkJoin线程池中并行计算。
+     * 各列长度必须相同且至少为2，值全部相同的列与任何列的相关系数为NaN。
+     */
+    public static double[][] matrix(List<ColumnRanks> columns, ForkJoinPool pool) {
+        int size = columns.size();
+        for (ColumnRanks column : columns) {
+            if (column.size() != columns.get(0).size()) {
+                throw new IllegalArgumentException("相关性分析要求各列数值个数相同: "
+                        + columns.get(0).size() + " / " + column.size());
+            }
+            if (column.size() < 2) {
+                throw new IllegalArgumentException("相关性分析至少需要2行数据: " + column.size());
+            }
+        }
+
+        double[][] result = new double[size][size];
+        int[] pairRows = new int[size * (size - 1) / 2];
+        int[] pairColumns = new int[pairRows.length];
+        int pair = 0;
+        for (int i = 0; i < size; i++) {
+            ColumnRanks column = columns.get(i);
+            result[i][i] = column.getTiedPairs() == (long) column.size() * (column.size() - 1) / 2 ? Double.NaN : 1.0;
+            for (int j = i + 1; j < size; j++) {
+                pairRows[pair] = i;
+                pairColumns[pair++] = j;
+            }
+        }
+        pool.invoke(new RangeTask(0, pairRows.length, p -> {
+            int i = pairRows[p];
+            int j = pairColumns[p];
+            result[i][j] = result[j][i] = tauB(columns.get(i), columns.get(j));
+        }));
+        return result;
+    }
+
+    // 自底向上归并排序，统计前面的值严格大于后面的值的对数
+    private static long countInversions(int[] values) {
+        int n = values.length;
+        int[] buffer = new int[n];
+        long inversions = 0;
+        for (int width = 1; width < n; width <<= 1) {
+            for (int from = 0; from < n - width; from += width << 1) {
+                int middle = from + width;
+                int to = Math.min(middle + width, n);
+                int left = from;
+                int right = middle;
+                int out = from;
+                while (left < middle && right < to) {
+                    if (values[right] < values[left]) {
+                        inversions += middle - left;
+                        buffer[out++] = values[right++];
+                    } else {
+                        buffer[out++] = values[left++];
+                    }
+                }
+                while (left < middle) {
+                    buffer[out++] = values[left++];
+                }
+                while (right < to) {
+                    buffer[out++] = values[right++];
+                }
+                System.arraycopy(buffer, from, values, from, to - from);
+            }
+        }
+        return inversions;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.excelanalyzer.stats;
+
+import java.util.Arrays;
+
+/**
+ * KLL分位数草图：按层保存数值样本，第h层的每个样本代表2^h个原始值。某层超出容量时排序后
+ * 隔一取一提升到上一层，总内存约为3k个double，与数据量无关。草图可以合并，秩误差约为
+ * {@link #getNormalizedRankError()}。
+ * 压缩时的取舍由固定种子的伪随机数决定，相同的输入和合并顺序总是得到相同的结果。
+ */
+public class KllQuantileSketch {
+
+    private static final int MIN_LEVEL_WIDTH = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private int[] capacities;
+    private long count;
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    public KllQuantileSketch(int k) {
+        if (k < MIN_LEVEL_WIDTH) {
+            throw new IllegalArgumentException("分位数草图参数k不能小于" + MIN_LEVEL_WIDTH + ": " + k);
+        }
+        this.k = k;
+        levels[0] = new double[k];
+        updateCapacities();
+    }
+
+    public int getK() { return k; }
+
+    // 参与统计的数值个数(不含NaN)
+    public long getCount() { return count; }
+
+    // 单个分位数的归一化秩误差(约99%置信度)，经验公式与DataSketches的KLL实现一致
+    public double getNormalizedRankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    // 与commons-math的Percentile一致忽略NaN
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        if (levelSizes[0] >= capacities[0]) {
+            compress();
+        }
+    }
+
+    public void merge(KllQuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("分位数草图参数不一致，无法合并: " + k + " / " + other.k);
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.levelSizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        randomState ^= Long.rotateLeft(other.randomState, 17);
+        compress();
+    }
+
+    /**
+     * 估计第p百分位数(0~100)，按commons-math Percentile默认的方式在相邻秩之间插值。
+     * 未发生压缩时结果与精确计算相同。
+     */
+    public double percentile(double p) {
+        return percentiles(p)[0];
+    }
+
+    // 一次排序样本，估计多个百分位数
+    public double[] percentiles(double... ps) {
+        double[] result = new double[ps.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        // 各层分别排序后多路归并，权重随样本一起移动，不需要装箱的下标排序
+        int size = 0;
+        double[][] sortedLevels = new double[levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            sortedLevels[level] = Arrays.copyOf(levels[level], levelSizes[level]);
+            Arrays.sort(sortedLevels[level]);
+            size += levelSizes[level];
+        }
+        double[] items = new double[size];
+        long[] weights = new long[size];
+        int[] heads = new int[levels.length];
+        for (int index = 0; index < size; index++) {
+            int next = -1;
+            for (int level = 0; level < levels.length; level++) {
+                if (heads[level] < levelSizes[level] && (next < 0
+                        || Double.compare(sortedLevels[level][heads[level]], sortedLevels[next][heads[next]]) < 0)) {
+                    next = level;
+                }
+            }
+            items[index] = sortedLevels[next][heads[next]++];
+            weights[index] = 1L << next;
+        }
+        for (int i = 1; i < size; i++) {
+            weights[i] += weights[i - 1];
+        }
+
+        for (int i = 0; i < ps.length; i++) {
+            double pos = ps[i] * (count + 1) / 100;
+            if (count == 1 || pos < 1) {
+                result[i] = items[0];
+            } else if (pos >= count) {
+                result[i] = items[size - 1];
+            } else {
+                long rank = (long) Math.floor(pos);
+                double lower = itemAtRank(items, weights, rank);
+                double upper = itemAtRank(items, weights, rank + 1);
+                result[i] = lower + (pos - rank) * (upper - lower);
+            }
+        }
+        return result;
+    }
+
+    // 累计权重严格递增，取第一个累计权重达到rank的样本
+    private static double itemAtRank(double[] items, long[] cumulativeWeights, long rank) {
+        int index = Arrays.binarySearch(cumulativeWeights, rank);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return items[Math.min(index, items.length - 1)];
+    }
+
+    private void append(int level, double value) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            levelSizes = Arrays.copyOf(levelSizes, level + 1);
+            levels[level] = new double[MIN_LEVEL_WIDTH];
+            updateCapacities();
+        }
+        double[] items = levels[level];
+        if (levelSizes[level] == items.length) {
+            levels[level] = items = Arrays.copyOf(items, items.length * 2);
+        }
+        items[levelSizes[level]++] = value;
+    }
+
+    // 从低层开始压缩超出容量的层，每层压缩后样本数减半
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (levelSizes[level] >= capacities[level]) {
+                compact(level);
+            }
+        }
+    }
+
+    // 层容量随层数变化：最高层为k，往下每层按2/3递减，最小为8
+    private void updateCapacities() {
+        capacities = new int[levels.length];
+        for (int level = 0; level < levels.length; level++) {
+            int depth = levels.length - level - 1;
+            capacities[level] = Math.max(MIN_LEVEL_WIDTH, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+        }
+    }
+
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = levelSizes[level];
+        Arrays.sort(items, 0, size);
+
+        // 奇数个样本时保留一个在本层，其余两两一组随机保留其中一个提升到上一层
+        int kept = size % 2;
+        double leftover = items[size - 1];
+        int offset = nextBit();
+        int pairs = size / 2;
+        double[] promoted = new double[pairs];
+        for (int i = 0; i < pairs; i++) {
+            promoted[i] = items[2 * i + offset];
+        }
+        levelSizes[level] = 0;
+        if (kept == 1) {
+            items[0] = leftover;
+            levelSizes[level] = 1;
+        }
+        for (double value : promoted) {
+            append(level + 1, value);
+        }
+    }
+
+    private int nextBit() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState & 1);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.excelanalyzer.stats;
+
+import com.example.excelanalyzer.dataframe.Column;
+import org.apache.commons.math3.distribution.FDistribution;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.linear.CholeskyDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.NonPositiveDefiniteMatrixException;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import java.util.List;
+
+/**
+ * 带截距的多元最小二乘回归。由 {@link CoMomentAccumulator} 的均值和中心化协同矩求解：
+ * 前k个变量为自变量，最后一个为因变量。只需一遍扫描数据，内存只与变量个数的平方有关。
+ * 为减小病态程度，在自变量的相关系数矩阵上用Cholesky分解求标准化系数，再换算回原始尺度。
+ */
+public class LinearRegressionFit {
+
+    private final long sampleSize;
+    private final double intercept;
+    private final double[] slopes;
+    private final double interceptStandardError;
+    private final double[] slopeStandardErrors;
+    private final double rSquared;
+    private final double residualSumOfSquares;
+
+    private LinearRegressionFit(long sampleSize, double intercept, double[] slopes, double interceptStandardError,
+                                double[] slopeStandardErrors, double rSquared, double residualSumOfSquares) {
+        this.sampleSize = sampleSize;
+        this.intercept = intercept;
+        this.slopes = slopes;
+        this.interceptStandardError = interceptStandardError;
+        this.slopeStandardErrors = slopeStandardErrors;
+        this.rSquared = rSquared;
+        this.residualSumOfSquares = residualSumOfSquares;
+    }
+
+    public static LinearRegressionFit fit(CoMomentAccumulator moments) {
+        int k = moments.size() - 1;
+        long n = moments.getCount();
+        if (k < 1) {
+            throw new IllegalArgumentException("回归分析至少需要一个自变量");
+        }
+        if (n <= k + 1) {
+            throw new IllegalArgumentException("有效样本数 " + n + " 不足，至少需要 " + (k + 2) + " 行完整数据");
+        }
+        double[] deviations = new double[k + 1];
+        for (int i = 0; i <= k; i++) {
+            deviations[i] = Math.sqrt(moments.getCovariance(i, i));
+            if (!(deviations[i] > 0) || Double.isInfinite(deviations[i])) {
+                throw new IllegalArgumentException(i == k ? "因变量为常数，无法进行回归分析"
+                        : "第 " + (i + 1) + " 个自变量为常数，无法进行回归分析");
+            }
+        }
+
+        // 标准化后的正规方程 Rxx·b = rxy
+        double[][] correlations = moments.correlationMatrix();
+        double[][] rxx = new double[k][k];
+        double[] rxy = new double[k];
+        for (int i = 0; i < k; i++) {
+            System.arraycopy(correlations[i], 0, rxx[i], 0, k);
+            rxy[i] = correlations[i][k];
+        }
+        RealMatrix inverse;
+        try {
+            inverse = new CholeskyDecomposition(MatrixUtils.createRealMatrix(rxx)).getSolver().getInverse();
+        } catch (NonPositiveDefiniteMatrixException e) {
+            throw new IllegalArgumentException("自变量之间存在完全共线性，无法求解回归系数");
+        }
+        double[] standardized = inverse.operate(rxy);
+
+        double explained = 0;
+        for (int i = 0; i < k; i++) {
+            explained += standardized[i] * rxy[i];
+        }
+        double rSquared = Math.max(0.0, Math.min(1.0, explained));
+        double totalSumOfSquares = moments.getCovariance(k, k) * (n - 1);
+        double residualSumOfSquares = (1 - rSquared) * totalSumOfSquares;
+        double residualVariance = residualSumOfSquares / (n - k - 1);
+
+        // Var(b_i) = σ²·[Sxx⁻¹]ii，Sxx⁻¹ = D⁻¹·Rxx⁻¹·D⁻¹/(n-1)，D为各自变量的标准差
+        double[] slopes = new double[k];
+        double[] slopeStandardErrors = new double[k];
+        double[] scaledMeans = new double[k];
+        double intercept = moments.getMean(k);
+        for (int i = 0; i < k; i++) {
+            slopes[i] = standardized[i] * deviations[k] / deviations[i];
+            slopeStandardErrors[i] = Math.sqrt(residualVariance * inverse.getEntry(i, i) / (n - 1)) / deviations[i];
+            scaledMeans[i] = moments.getMean(i) / deviations[i];
+            intercept -= slopes[i] * moments.getMean(i);
+        }
+        // Var(a) = σ²·(1/n + x̄ᵀ·Sxx⁻¹·x̄)
+        double quadratic = 0;
+        double[] product = inverse.operate(scaledMeans);
+        for (int i = 0; i < k; i++) {
+            quadratic += scaledMeans[i] * product[i];
+        }
+        double interceptStandardError = Math.sqrt(residualVariance * (1.0 / n + quadratic / (n - 1)));
+
+        return new LinearRegressionFit(n, intercept, slopes, interceptStandardError, slopeStandardErrors,
+                rSquared, residualSumOfSquares);
+    }
+
+    public long getSampleSize() { return sampleSize; }
+
+    public int getPredictorCount() { return slopes.length; }
+
+    public double getIntercept() { return intercept; }
+
+    public double getSlope(int i) { return slopes[i]; }
+
+    public double getInterceptStandardError() { return interceptStandardError; }
+
+    public double getSlopeStandardError(int i) { return slopeStandardErrors[i]; }
+
+    public double getRSquared() { return rSquared; }
+
+    public double getResidualSumOfSquares() { return residualSumOfSquares; }
+
+    // 残差标准误 sqrt(SSE / (n - k - 1))
+    public double getResidualStandardError() {
+        return Math.sqrt(residualSumOfSquares / (sampleSize - slopes.length - 1));
+    }
+
+    public double getAdjustedRSquared() {
+        long n = sampleSize;
+        int k = slopes.length;
+        return 1 - (1 - rSquared) * (n - 1) / (n - k - 1);
+    }
+
+    // 整体显著性检验的F统计量，完全拟合时为正无穷
+    public double getFStatistic() {
+        int k = slopes.length;
+        return (rSquared / k) / ((1 - rSquared) / (sampleSize - k - 1));
+    }
+
+    public double getFPValue() {
+        double f = getFStatistic();
+        if (Double.isInfinite(f)) {
+            return 0.0;
+        }
+        int k = slopes.length;
+        return 1 - new FDistribution(k, sampleSize - k - 1).cumulativeProbability(f);
+    }
+
+    // 截距的双侧t检验p值
+    public double getInterceptPValue() {
+        return tTestPValue(intercept, interceptStandardError);
+    }
+
+    // 第i个自变量系数的双侧t检验p值
+    public double getSlopePValue(int i) {
+        return tTestPValue(slopes[i], slopeStandardErrors[i]);
+    }
+
+    private double tTestPValue(double coefficient, double standardError) {
+        if (!(standardError > 0)) {
+            return coefficient == 0 ? 1.0 : 0.0;
+        }
+        TDistribution distribution = new TDistribution(sampleSize - slopes.length - 1);
+        return 2 * distribution.cumulativeProbability(-Math.abs(coefficient / standardError));
+    }
+
+    public double predict(double[] predictors) {
+        double value = intercept;
+        for (int i = 0; i < slopes.length; i++) {
+            value += slopes[i] * predictors[i];
+        }
+        return value;
+    }
+
+    /**
+     * 按行顺序逐个计算残差 y - ŷ，不保存整列：columns与拟合时的列顺序相同(自变量在前，因变量在最后)，
+     * 与 {@link CoMomentTask} 一样只计算所有列都是数值的行，row为该行在列中的下标。
+     */
+    public void forEachResidual(List<Column> columns, ResidualConsumer action) {
+        int rows = columns.get(0).size();
+        double[][] row = new double[columns.size()][1];
+        double[] predictors = new double[slopes.length];
+        for (int r = 0; r < rows; r++) {
+            if (!CoMomentTask.readRow(columns, r, row, 0)) {
+                continue;
+            }
+            for (int i = 0; i < predictors.length; i++) {
+                predictors[i] = row[i][0];
+            }
+            action.accept(r, row[slopes.length][0] - predict(predictors));
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResidualConsumer {
+        void accept(int row, double residual);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * long到int的开放寻址哈希表(线性探测，删除时后移填补)，不装箱。0作为空槽标记，键0单独保存。
+ */
+public class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // 不存在时返回defaultValue
+    public int get(long key, int defaultValue) {
+        if (key == 0) {
+            return containsZero ? zeroValue : defaultValue;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public void put(long key, int value) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        // 负载因子不超过0.5
+        if (size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // 加上delta并返回新值，不存在时视为0
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public void remove(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                containsZero = false;
+                zeroValue = 0;
+                size--;
+            }
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                keys[slot] = 0;
+                size--;
+                shiftBack(slot);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() { return size; }
+
+    public interface Entry {
+        void accept(long key, int value);
+    }
+
+    public void forEach(Entry action) {
+        if (containsZero) {
+            action.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // 删除后把同一探测链上后面的键前移，保证查找不会因空槽提前结束
+    private void shiftBack(int emptied) {
+        int slot = emptied;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == 0) {
+                return;
+            }
+            int home = slot(key);
+            // home不在(emptied, slot]区间内(考虑回绕)时可以前移
+            boolean movable = emptied <= slot
+                    ? home <= emptied || home > slot
+                    : home <= emptied && home > slot;
+            if (movable) {
+                keys[emptied] = key;
+                values[emptied] = values[slot];
+                keys[slot] = 0;
+                emptied = slot;
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * 列概要的计算方式。quantileSketchK大于0时分位数由KLL草图估计，概要不再保存全部数值；
+ * 为0时保存数值并精确计算。数值单元格的不同值个数超过exactDistinctLimit后改用
+ * 精度为hllPrecision的HyperLogLog估计。各阶矩等数组运算由kernels完成。
+ */
+public class ProfileOptions {
+
+    public static final ProfileOptions EXACT = new ProfileOptions(0, Integer.MAX_VALUE, 14);
+
+    private final int quantileSketchK;
+    private final int exactDistinctLimit;
+    private final int hllPrecision;
+    private final ArrayKernels kernels;
+
+    public ProfileOptions(int quantileSketchK, int exactDistinctLimit, int hllPrecision) {
+        this(quantileSketchK, exactDistinctLimit, hllPrecision, ArrayKernels.SCALAR);
+    }
+
+    public ProfileOptions(int quantileSketchK, int exactDistinctLimit, int hllPrecision, ArrayKernels kernels) {
+        this.quantileSketchK = quantileSketchK;
+        this.exactDistinctLimit = exactDistinctLimit;
+        this.hllPrecision = hllPrecision;
+        this.kernels = kernels;
+    }
+
+    public int getQuantileSketchK() { return quantileSketchK; }
+
+    public boolean isQuantileSketch() { return quantileSketchK > 0; }
+
+    public int getExactDistinctLimit() { return exactDistinctLimit; }
+
+    public int getHllPrecision() { return hllPrecision; }
+
+    public ArrayKernels getKernels() { return kernels; }
+}
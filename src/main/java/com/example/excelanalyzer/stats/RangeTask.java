@@ -0,0 +1,32 @@
+package com.example.excelanalyzer.stats;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * 对下标区间[from, to)中的每个下标执行action，区间二分后在ForkJoin线程池中并行。
+ */
+class RangeTask extends RecursiveAction {
+
+    private final int from;
+    private final int to;
+    private final IntConsumer action;
+
+    RangeTask(int from, int to, IntConsumer action) {
+        this.from = from;
+        this.to = to;
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= 1) {
+            if (from < to) {
+                action.accept(from);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.excelanalyzer.stats;
+
+/**
+ * {@link ArrayKernels} 的标量实现，按下标顺序逐个累加。
+ */
+public class ScalarKernels implements ArrayKernels {
+
+    @Override
+    public String getName() { return "SCALAR"; }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void centralMoments(double[] values, int from, int to, double mean, double[] moments) {
+        double m2 = 0;
+        double m3 = 0;
+        double m4 = 0;
+        for (int i = from; i < to; i++) {
+            double d = values[i] - mean;
+            double d2 = d * d;
+            m2 += d2;
+            m3 += d2 * d;
+            m4 += d2 * d2;
+        }
+        moments[0] = m2;
+        moments[1] = m3;
+        moments[2] = m4;
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        double min = Double.NaN;
+        for (int i = from; i < to; i++) {
+            if (values[i] < min || Double.isNaN(min)) {
+                min = values[i];
+            }
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        double max = Double.NaN;
+        for (int i = from; i < to; i++) {
+            if (values[i] > max || Double.isNaN(max)) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public double dot(double[] x, double[] y, int from, int to) {
+        double dot = 0;
+        for (int i = from; i < to; i++) {
+            dot += x[i] * y[i];
+        }
+        return dot;
+    }
+
+    @Override
+    public double center(double[] values, double mean, double[] target, int from, int to) {
+        double sumSquares = 0;
+        for (int i = from; i < to; i++) {
+            double d = values[i] - mean;
+            target[i] = d;
+            sumSquares += d * d;
+        }
+        return sumSquares;
+    }
+
+    @Override
+    public void scale(double[] values, double factor, int from, int to) {
+        for (int i = from; i < to; i++) {
+            values[i] *= factor;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.excelanalyzer.stats;
+
+import java.util.Arrays;
+
+/**
+ * Space-Saving高频项摘要：最多保留capacity个计数器，新值到来且计数器已满时替换计数最小的项，
+ * 新项计数从被替换项的计数起算并记为误差。每项的计数是真实次数的上界，真实次数不小于
+ * count - error；出现次数超过总数/capacity的值一定在摘要中。
+ */
+public class SpaceSavingSummary {
+
+    private final int capacity;
+    private long[] keys;
+    private int[] counts;
+    private int[] errors;
+    // 按计数排列的最小堆，保存计数器下标；heapIndex记录各计数器在堆中的位置
+    private int[] heap;
+    private int[] heapIndex;
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private int size;
+    private long total;
+    private boolean exact = true;
+
+    public interface Counter {
+        void accept(long key, int count, int error);
+    }
+
+    public SpaceSavingSummary(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("高频项摘要容量须大于0: " + capacity);
+        }
+        this.capacity = capacity;
+        int initial = Math.min(capacity, 16);
+        keys = new long[initial];
+        counts = new int[initial];
+        errors = new int[initial];
+        heap = new int[initial];
+        heapIndex = new int[initial];
+    }
+
+    public int getCapacity() { return capacity; }
+
+    public long getTotal() { return total; }
+
+    public int size() { return size; }
+
+    // 未发生过替换或截断时，摘要中的计数就是精确值且包含了全部不同的值
+    public boolean isExact() { return exact; }
+
+    public void add(long key) {
+        total++;
+        int slot = slots.get(key, -1);
+        if (slot >= 0) {
+            counts[slot]++;
+            siftDown(heapIndex[slot]);
+            return;
+        }
+        if (size < capacity) {
+            slot = size++;
+            ensureCapacity(size);
+            keys[slot] = key;
+            counts[slot] = 1;
+            errors[slot] = 0;
+            heap[slot] = slot;
+            heapIndex[slot] = slot;
+            slots.put(key, slot);
+            siftUp(slot);
+            return;
+        }
+        // 替换计数最小的项
+        slot = heap[0];
+        slots.remove(keys[slot]);
+        int minCount = counts[slot];
+        keys[slot] = key;
+        errors[slot] = minCount;
+        counts[slot] = minCount + 1;
+        slots.put(key, slot);
+        siftDown(0);
+        exact = false;
+    }
+
+    public void forEach(Counter action) {
+        for (int slot = 0; slot < size; slot++) {
+            action.accept(keys[slot], counts[slot], errors[slot]);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= keys.length) {
+            return;
+        }
+        int newLength = Math.min(capacity, Math.max(required, keys.length * 2));
+        keys = Arrays.copyOf(keys, newLength);
+        counts = Arrays.copyOf(counts, newLength);
+        errors = Arrays.copyOf(errors, newLength);
+        heap = Arrays.copyOf(heap, newLength);
+        heapIndex = Arrays.copyOf(heapIndex, newLength);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[heap[index]]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && counts[heap[right]] < counts[heap[left]]) {
+                smallest = right;
+            }
+            if (counts[heap[index]] <= counts[heap[smallest]]) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int slotA = heap[a];
+        int slotB = heap[b];
+        heap[a] = slotB;
+        heap[b] = slotA;
+        heapIndex[slotB] = a;
+        heapIndex[slotA] = b;
+    }
+}
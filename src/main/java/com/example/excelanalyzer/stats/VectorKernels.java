@@ -0,0 +1,89 @@
+package com.example.excelanalyzer.stats;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ArrayKernels} 的SIMD实现，按平台首选宽度(AVX2为4路，AVX-512为8路)分道累加后再归约，
+ * 末尾不足一个向量的部分交给标量实现。只能通过 {@link ArrayKernels#select(boolean)} 创建，
+ * 以保证jdk.incubator.vector模块已加载。
+ */
+class VectorKernels implements ArrayKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() { return "VECTOR-" + SPECIES.length(); }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + SCALAR.sum(values, i, to);
+    }
+
+    @Override
+    public void centralMoments(double[] values, int from, int to, double mean, double[] moments) {
+        DoubleVector acc2 = DoubleVector.zero(SPECIES);
+        DoubleVector acc3 = DoubleVector.zero(SPECIES);
+        DoubleVector acc4 = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, values, i).sub(mean);
+            DoubleVector d2 = d.mul(d);
+            acc2 = acc2.add(d2);
+            acc3 = d2.fma(d, acc3);
+            acc4 = d2.fma(d2, acc4);
+        }
+        SCALAR.centralMoments(values, i, to, mean, moments);
+        moments[0] += acc2.reduceLanes(VectorOperators.ADD);
+        moments[1] += acc3.reduceLanes(VectorOperators.ADD);
+        moments[2] += acc4.reduceLanes(VectorOperators.ADD);
+    }
+
+    // JDK 17的double分道MIN/MAX及比较掩码没有比标量比较更快(实测慢数倍)，最小/最大值沿用标量实现
+    @Override
+    public double min(double[] values, int from, int to) {
+        return SCALAR.min(values, from, to);
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        return SCALAR.max(values, from, to);
+    }
+
+    @Override
+    public double dot(double[] x, double[] y, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            acc = DoubleVector.fromArray(SPECIES, x, i).fma(DoubleVector.fromArray(SPECIES, y, i), acc);
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + SCALAR.dot(x, y, i, to);
+    }
+
+    @Override
+    public double center(double[] values, double mean, double[] target, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, values, i).sub(mean);
+            d.intoArray(target, i);
+            acc = d.fma(d, acc);
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + SCALAR.center(values, mean, target, i, to);
+    }
+
+    @Override
+    public void scale(double[] values, double factor, int from, int to) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).mul(factor).intoArray(values, i);
+        }
+        SCALAR.scale(values, factor, i, to);
+    }
+}